@@ -1,5 +1,6 @@
 package aa;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import physics.Body;
@@ -21,44 +22,67 @@ public class Alignment extends Behavior {
 
     private final List<? extends Body> neighbors; //lista de vizinhos considerados
     private final float neighborRadius; //raio para considerar os vizinhos
+    private final SpatialGrid grid;  //indice espacial opcional (null -> percorre a lista toda)
+    private final List<Body> nearby = new ArrayList<>();  //candidatos devolvidos pela grelha
 
     public Alignment(List<? extends Body> neighbors, float neighborRadius, float weight) {
         super(weight);
         this.neighbors = neighbors;
         this.neighborRadius = neighborRadius;
+        this.grid = null;
+    }
+
+    //variante indexada: consulta apenas as celulas da grelha dentro do raio
+    public Alignment(SpatialGrid grid, float neighborRadius, float weight) {
+        super(weight);
+        this.neighbors = grid.getBodies();
+        this.neighborRadius = neighborRadius;
+        this.grid = grid;
     }
 
     @Override
     public PVector getDesiredVelocity(Boid me) {
-    	PVector avgVel = new PVector(0, 0);
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+        out.set(0, 0);  //out acumula a soma das velocidades dos vizinhos
         int count = 0;
 
-        for (Body b : neighbors) {
+        for (Body b : candidates(me)) {
             if (b == me) {continue;}  //ignora o proprio boid
 
             float d = PVector.dist(me.getPos(), b.getPos());
             if (d > 0 && d < neighborRadius) {
-                avgVel.add(b.getVel());  //acumula velocidades dos vizinhos
+                out.add(b.getVel());  //acumula velocidades dos vizinhos
                 count++;
             }
         }
 
-        if (count == 0) {return new PVector(0, 0);}  //sem vizinhos proximos, nao ha forca de alinhamento
+        if (count == 0) {return out;}  //sem vizinhos proximos, nao ha forca de alinhamento
 
-        avgVel.div(count); //velocidade media do grupo
+        out.div(count); //velocidade media do grupo
 
         //desired velocity segue a direcao media dos vizinhos
-        if (avgVel.magSq() > 0.00001f) {
-            avgVel.normalize();
-            avgVel.mult(me.dna.maxSpeed);
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed);
         }
 
         //steering = desired - velocidade atual
-        PVector steer = PVector.sub(avgVel, me.getVel());
+        out.sub(me.getVel());
 
         //limita a forca para manter movimento suave
-        if (steer.mag() > me.dna.maxForce) { steer.setMag(me.dna.maxForce);}
+        if (out.mag() > me.dna.maxForce) { out.setMag(me.dna.maxForce);}
+
+        return out;
+    }
 
-        return steer;
+    //vizinhos a testar: celulas proximas se houver grelha, senao a lista completa
+    private List<? extends Body> candidates(Boid me) {
+        if (grid == null) { return neighbors;}
+        grid.query(me.getPos(), neighborRadius, nearby);
+        return nearby;
     }
 }
@@ -11,7 +11,9 @@ import processing.core.PVector;
  *
  * As subclasses devem sobrescrever "getDesiredVelocity(Boid)"
  * para definir a velocidade desejada específica do comportamento
- * (ex: wander, seek, pursue, avoid).
+ * (ex: wander, seek, pursue, avoid). Para evitar alocações por frame,
+ * podem também sobrescrever "getDesiredVelocity(Boid, PVector)", escrevendo
+ * o resultado no vetor fornecido pelo Boid.
  *
  * Esta classe não implementa lógica de movimento concreta.
  */
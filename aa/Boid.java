@@ -7,6 +7,7 @@ import processing.core.PVector;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Classe base para um boid (agente autónomo) com steering behaviors.
@@ -20,6 +21,12 @@ import java.util.List;
  *  - combina os resultados numa força média
  *  - limita a força pelo máximo definido no DNA e aplica-a ao corpo
  *
+ * A atualização está dividida em duas fases, para que um grupo de boids possa
+ * ser atualizado em paralelo com resultado determinístico:
+ *  - computeSteering(): só lê posições/velocidades (próprias e dos vizinhos) e guarda a força
+ *  - integrate(dt): aplica a força guardada e move o boid
+ * applyBehaviors(dt) executa as duas fases seguidas para um boid isolado.
+ *
  * O boid usa um modelo de limites do tipo wrap-around no eixo x.
  *
  * Esta classe não gere colisões nem regras de gameplay, apenas calcula movimento e desenha o agente.
@@ -34,6 +41,14 @@ public class Boid extends Body {
     protected float phiWander;
     private float speed;
 
+    //vetores de trabalho reutilizados em cada applyBehaviors (evita alocacoes por frame)
+    private final PVector desiredScratch = new PVector();
+    private final PVector sumForces = new PVector();
+    private boolean hasSteering;  //computeSteering produziu forca neste passo
+
+    //gerador proprio: a sequencia de cada boid nao depende da ordem/thread em que e atualizado
+    final Random random = new Random((long) (Math.random() * Long.MAX_VALUE));
+
     protected Boid(PVector pos, float mass, float radius, int color, PApplet p, Type type) {
         super(pos, new PVector(0, 0), mass, radius, color);
         this.p = p;
@@ -55,32 +70,43 @@ public class Boid extends Body {
         }
     }
     
-   //combina comportamentos ativos por media ponderada
+    //atualizacao completa de um boid isolado (fase 1 + fase 2)
     public void applyBehaviors(float dt) {
-        PVector sumForces = new PVector();
+        computeSteering();
+        integrate(dt);
+    }
+
+   //fase 1: combina comportamentos ativos por media ponderada (nao altera pos/vel)
+    public void computeSteering() {
+        sumForces.set(0, 0);
         float sumWeights = 0;
 
-        //percorrer todos os comportamentos ativos
-        for (Behavior behavior : behaviors) {
-            PVector desired = behavior.getDesiredVelocity(this);
+        //percorrer todos os comportamentos ativos (cada um escreve no mesmo vetor de trabalho)
+        for (int i = 0; i < behaviors.size(); i++) {
+            Behavior behavior = behaviors.get(i);
+            PVector desired = behavior.getDesiredVelocity(this, desiredScratch);
 
             //aplicar peso do comportamento
             //ignora comportamentos que nao produzem velocidade desejada neste frame
             if (desired != null) {
-            	 PVector f = desired.copy();
-                 f.mult(behavior.getWeight());
-                 sumForces.add(f);
-                 sumWeights += behavior.getWeight();
+                float w = behavior.getWeight();
+                sumForces.add(desired.x * w, desired.y * w);
+                sumWeights += w;
             }
         }
 
 
-        //se houver forças -> aplicar
-        if (sumWeights > 0) {
+        //se houver forças -> guardar para a fase de integracao
+        hasSteering = sumWeights > 0;
+        if (hasSteering) {
         	sumForces.div(sumWeights);  //normaliza pela soma dos pesos
             sumForces.limit(dna.maxForce);  //limita forca para evitar acelerações irrealistas
-            applyForce(sumForces);
         }
+    }
+
+    //fase 2: aplica a forca calculada em computeSteering e move o boid
+    public void integrate(float dt) {
+        if (hasSteering) { applyForce(sumForces);}
 
         super.move(dt);
         //vel.y = 0;
@@ -92,16 +118,30 @@ public class Boid extends Body {
     //definir limites do mundo (modelo wrap around)
     //wrap-around no eixo x (sai de um lado, entra do outro)
     private void checkBounds() {
-        if (pos.x > p.width + radius) { pos.x = -radius;}
-        else if (pos.x < -radius) { pos.x = p.width + radius;}
+        if (pos.x > p.width + radius) { wrapX(-radius);}
+        else if (pos.x < -radius) { wrapX(p.width + radius);}
+    }
+
+    //muda de lado e desloca tambem a posicao anterior (a interpolacao nao atravessa o ecra)
+    private void wrapX(float x) {
+        prevX += x - pos.x;
+        pos.x = x;
     }
 
     @Override
     public void display(PApplet p) {
-        p.pushMatrix();
-        p.translate(pos.x, pos.y);
+        drawShape(p, pos.x, pos.y, vel.heading(), radius, color); //orienta o boid pela direcao do movimento
+    }
 
-        float angle = vel.heading(); //orienta o boid pela direcao do movimento
+    @Override
+    public void display(PApplet p, float alpha) {
+        drawShape(p, renderX(alpha), renderY(alpha), vel.heading(), radius, color);
+    }
+
+    //desenha o triangulo do boid a partir de valores copiados (usado tambem pelos snapshots de render)
+    public static void drawShape(PApplet p, float x, float y, float angle, float radius, int color) {
+        p.pushMatrix();
+        p.translate(x, y);
         p.rotate(angle);
 
         p.fill(color);
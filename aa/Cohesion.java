@@ -1,5 +1,6 @@
 package aa;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import physics.Body;
@@ -21,43 +22,66 @@ public class Cohesion extends Behavior {
 
     private final List<? extends Body> neighbors;  //lista de vizinhos considerados
     private final float neighborRadius;   //raio de influencia dos vizinhos
+    private final SpatialGrid grid;  //indice espacial opcional (null -> percorre a lista toda)
+    private final List<Body> nearby = new ArrayList<>();  //candidatos devolvidos pela grelha
 
     public Cohesion(List<? extends Body> neighbors, float neighborRadius, float weight) {
         super(weight);
         this.neighbors = neighbors;
         this.neighborRadius = neighborRadius;
+        this.grid = null;
+    }
+
+    //variante indexada: consulta apenas as celulas da grelha dentro do raio
+    public Cohesion(SpatialGrid grid, float neighborRadius, float weight) {
+        super(weight);
+        this.neighbors = grid.getBodies();
+        this.neighborRadius = neighborRadius;
+        this.grid = grid;
     }
 
     @Override
     public PVector getDesiredVelocity(Boid me) {
-    	PVector center = new PVector(0, 0);
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+        out.set(0, 0);  //out acumula a soma das posicoes dos vizinhos
         int count = 0;
 
-        for (Body b : neighbors) {
+        for (Body b : candidates(me)) {
             if (b == me) {continue;}  //ignora o proprio boid
 
             float d = PVector.dist(me.getPos(), b.getPos());
             if (d > 0 && d < neighborRadius) {
-                center.add(b.getPos());  //acumula posições dos vizinhos
+                out.add(b.getPos());  //acumula posições dos vizinhos
                 count++;
             }
         }
 
-        if (count == 0) { return new PVector(0, 0);} //sem vizinhos proximos, não ha força de coesão
+        if (count == 0) { return out;} //sem vizinhos proximos, não ha força de coesão
 
-        center.div(count); //centro de massa dos vizinhos
+        out.div(count); //centro de massa dos vizinhos
 
         //desired velocity aponta para o centro do grupo
-        PVector desired = PVector.sub(center, me.getPos());
-        if (desired.magSq() > 0.00001f) {
-            desired.normalize();
-            desired.mult(me.dna.maxSpeed);
+        out.sub(me.getPos());
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed);
         }
 
         //steering = desired - velocidade atual
-        PVector steer = PVector.sub(desired, me.getVel());
-        if (steer.mag() > me.dna.maxForce) { steer.setMag(me.dna.maxForce);} //limita a forca maxima
+        out.sub(me.getVel());
+        if (out.mag() > me.dna.maxForce) { out.setMag(me.dna.maxForce);} //limita a forca maxima
+
+        return out;
+    }
 
-        return steer;
+    //vizinhos a testar: celulas proximas se houver grelha, senao a lista completa
+    private List<? extends Body> candidates(Boid me) {
+        if (grid == null) { return neighbors;}
+        grid.query(me.getPos(), neighborRadius, nearby);
+        return nearby;
     }
 }
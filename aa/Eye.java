@@ -33,6 +33,7 @@ public class Eye {
     private Boid me;
     private float displayScaleFar = 1.4f;
     private float displayScaleNear = 1.2f;
+    private final float[] pp = new float[2], farPix = new float[2], nearPix = new float[2];  //buffers de conversao do display
 
     public Eye(Boid me, List<Body> allTrackingBodies) {
         this.me = me;
@@ -97,14 +98,14 @@ public class Eye {
     public void display(PApplet p, SubPlot plt) {
         p.pushStyle();
         p.pushMatrix();
-        float[] pp = plt.getPixelCoord(me.getPos().x, me.getPos().y); //mundo -> pixel
+        plt.getPixelCoord(me.getPos().x, me.getPos().y, pp); //mundo -> pixel
         p.translate(pp[0], pp[1]);
         p.rotate(-me.getVel().heading()); //alinha o cone com a direcao do boid
 
-        float[] farPix = plt.getDimInPixel(visionDistance * displayScaleFar,
-                visionDistance * displayScaleFar);
-        float[] nearPix = plt.getDimInPixel(visionSafeDistance * displayScaleNear,
-                visionSafeDistance * displayScaleNear);
+        plt.getDimInPixel(visionDistance * displayScaleFar,
+                visionDistance * displayScaleFar, farPix);
+        plt.getDimInPixel(visionSafeDistance * displayScaleNear,
+                visionSafeDistance * displayScaleNear, nearPix);
 
         //desenha o cone de far sight (sem alterar estilo global)
         p.fill(0, 200, 0, 30);
@@ -0,0 +1,147 @@
+package aa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import physics.Body;
+import processing.core.PVector;
+
+/**
+ * Comportamento de Flocking combinado (alignment + cohesion + separation).
+ *
+ * Este comportamento produz o mesmo resultado que adicionar ao boid os três
+ * behaviors Alignment, Cohesion e Separation em separado, mas percorre os
+ * vizinhos uma única vez:
+ *  - a distância a cada vizinho é calculada só uma vez
+ *  - dentro de neighborRadius acumula velocidades (alinhamento) e posições (coesão)
+ *  - dentro de desiredSeparation acumula o afastamento (separação)
+ *
+ * Os três steerings são combinados pela mesma média ponderada que o Boid usaria,
+ * e o peso deste behavior é a soma dos três pesos. Assim a contribuição final
+ * (peso * steering) e a soma de pesos no Boid são idênticas às da versão separada.
+ */
+
+public class Flocking extends Behavior {
+
+    private final List<? extends Body> neighbors;  //lista de vizinhos considerados
+    private final SpatialGrid grid;  //indice espacial opcional (null -> percorre a lista toda)
+    private final List<Body> nearby = new ArrayList<>();  //candidatos devolvidos pela grelha
+    private final PVector align = new PVector(), cohesion = new PVector();  //steerings parciais reutilizados
+
+    private final float neighborRadius;  //raio de alinhamento e coesao
+    private final float desiredSeparation;  //distancia minima entre vizinhos
+    private final float alignWeight, cohesionWeight, separationWeight;
+
+    public Flocking(List<? extends Body> neighbors, float neighborRadius, float alignWeight, float cohesionWeight,
+                    float desiredSeparation, float separationWeight) {
+        this(neighbors, null, neighborRadius, alignWeight, cohesionWeight, desiredSeparation, separationWeight);
+    }
+
+    //variante indexada: consulta apenas as celulas da grelha dentro do maior raio
+    public Flocking(SpatialGrid grid, float neighborRadius, float alignWeight, float cohesionWeight,
+                    float desiredSeparation, float separationWeight) {
+        this(grid.getBodies(), grid, neighborRadius, alignWeight, cohesionWeight, desiredSeparation, separationWeight);
+    }
+
+    private Flocking(List<? extends Body> neighbors, SpatialGrid grid, float neighborRadius, float alignWeight,
+                     float cohesionWeight, float desiredSeparation, float separationWeight) {
+        super(alignWeight + cohesionWeight + separationWeight);
+        this.neighbors = neighbors;
+        this.grid = grid;
+        this.neighborRadius = neighborRadius;
+        this.alignWeight = alignWeight;
+        this.cohesionWeight = cohesionWeight;
+        this.desiredSeparation = desiredSeparation;
+        this.separationWeight = separationWeight;
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me) {
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+        PVector pos = me.getPos();
+
+        float avgVx = 0, avgVy = 0;  //soma das velocidades (alinhamento)
+        float centerX = 0, centerY = 0;  //soma das posicoes (coesao)
+        int groupCount = 0;
+
+        float sepX = 0, sepY = 0;  //soma dos afastamentos (separacao)
+        int sepCount = 0;
+
+        //uma unica passagem pelos vizinhos
+        for (Body b : candidates(me)) {
+            if (b == me) { continue;}  //ignora o proprio boid
+
+            PVector bp = b.getPos();
+            float dx = pos.x - bp.x;
+            float dy = pos.y - bp.y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            if (d <= 0) { continue;}
+
+            if (d < neighborRadius) {
+                avgVx += b.getVel().x;
+                avgVy += b.getVel().y;
+                centerX += bp.x;
+                centerY += bp.y;
+                groupCount++;
+            }
+
+            if (d < desiredSeparation) {
+                //vetor unitario para longe do vizinho, dividido pela distancia
+                sepX += dx / d / d;
+                sepY += dy / d / d;
+                sepCount++;
+            }
+        }
+
+        align.set(0, 0);
+        cohesion.set(0, 0);
+
+        if (groupCount > 0) {
+            //alinhamento: segue a velocidade media do grupo
+            align.set(avgVx / groupCount, avgVy / groupCount);
+            if (align.magSq() > 0.00001f) {
+                align.normalize();
+                align.mult(me.dna.maxSpeed);
+            }
+            align.sub(me.getVel());
+            if (align.mag() > me.dna.maxForce) { align.setMag(me.dna.maxForce);}
+
+            //coesao: aponta para o centro de massa do grupo
+            cohesion.set(centerX / groupCount - pos.x, centerY / groupCount - pos.y);
+            if (cohesion.magSq() > 0.00001f) {
+                cohesion.normalize();
+                cohesion.mult(me.dna.maxSpeed);
+            }
+            cohesion.sub(me.getVel());
+            if (cohesion.mag() > me.dna.maxForce) { cohesion.setMag(me.dna.maxForce);}
+        }
+
+        //separacao: media das contribuicoes, convertida em steering (calculada diretamente em out)
+        out.set(sepX, sepY);
+        if (sepCount > 0) { out.div(sepCount);}
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed);
+            out.sub(me.getVel());
+        }
+
+        //media ponderada igual a que o Boid faria com os tres behaviors separados
+        out.mult(separationWeight);
+        out.add(align.x * alignWeight, align.y * alignWeight);
+        out.add(cohesion.x * cohesionWeight, cohesion.y * cohesionWeight);
+        out.div(alignWeight + cohesionWeight + separationWeight);
+
+        return out;
+    }
+
+    //vizinhos a testar: celulas proximas se houver grelha, senao a lista completa
+    private List<? extends Body> candidates(Boid me) {
+        if (grid == null) { return neighbors;}
+        grid.query(me.getPos(), Math.max(neighborRadius, desiredSeparation), nearby);
+        return nearby;
+    }
+}
@@ -12,10 +12,26 @@ import processing.core.PVector;
  * Os comportamentos são avaliados a cada frame e combinados através
  * de uma média ponderada no Boid, permitindo movimento
  * emergente e modular (ex: wander, seek, pursue, avoid).
+ *
+ * Existem duas formas de obter a velocidade desejada:
+ *  - getDesiredVelocity(Boid): devolve um PVector novo (forma original)
+ *  - getDesiredVelocity(Boid, PVector): escreve no vetor fornecido pelo chamador,
+ *    evitando alocações por frame; é esta a forma usada pelo Boid
+ *
+ * Por omissão a segunda forma delega na primeira e copia o resultado, pelo que
+ * comportamentos antigos continuam a funcionar sem alterações.
  */
 
 public interface IBehaviour {
     PVector getDesiredVelocity(Boid me); //devolve a velocidade desejada para o boid neste comportamento
+
+    //escreve a velocidade desejada em out e devolve-o (null se nao houver contribuicao neste frame)
+    default PVector getDesiredVelocity(Boid me, PVector out) {
+        PVector desired = getDesiredVelocity(me);
+        if (desired == null) { return null;}
+        return out.set(desired);
+    }
+
     float getWeight(); //retorna o peso do comportamento
     void setWeight(float weight); //define o peso do comportamento
 }
\ No newline at end of file
@@ -24,32 +24,34 @@ public class Pursuit extends Behavior {
 
     @Override
     public PVector getDesiredVelocity(Boid me) {
-    	
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+
     	//sem sistema de visao, nao ha alvo a perseguir
         if (me.eye == null) {
             System.out.println("eye esta null");
-            return new PVector(0, 0);
+            return out.set(0, 0);
         }
 
         Body bodyTarget = me.eye.target; //obtem o alvo detetado atualmente pelo boid
-        
+
         //previsao da posicao futura do alvo com base na sua velocidade
-        PVector future = bodyTarget.getVel().copy().mult(me.dna.deltaTPursuit);
-        PVector target = PVector.add(bodyTarget.getPos(), future);
-        
+        float tx = bodyTarget.getPos().x + bodyTarget.getVel().x * me.dna.deltaTPursuit;
+        float ty = bodyTarget.getPos().y + bodyTarget.getVel().y * me.dna.deltaTPursuit;
+
         //desired velocity aponta para a posicao prevista
-        PVector desired = PVector.sub(target, me.getPos());
-        
-        //desired.y = 0;
-        
+        out.set(tx - me.getPos().x, ty - me.getPos().y);
+
         //steering
-        if (desired.magSq() > 0.00001f) {
-            desired.normalize();
-            desired.mult(me.dna.maxSpeed); //maxSpeed
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed); //maxSpeed
         }
-        
+
         //steering = desired - velocidade atual
-        PVector steer = PVector.sub(desired, me.getVel());
-        return steer;
+        return out.sub(me.getVel());
     }
 }
\ No newline at end of file
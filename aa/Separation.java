@@ -1,6 +1,7 @@
 package aa;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 import physics.Body;
@@ -24,42 +25,65 @@ public class Separation extends Behavior {
 
     private final List<? extends Body> neighbors;  //lista de outros inimigos para evitar
     private final float desiredSeparation;        //distância minima entre inimigos
+    private final SpatialGrid grid;  //indice espacial opcional (null -> percorre a lista toda)
+    private final List<Body> nearby = new ArrayList<>();  //candidatos devolvidos pela grelha
 
     
     public Separation(List<? extends Body> neighbors, float desiredSeparation, float weight) {
     	super(weight);
         this.neighbors = neighbors;
         this.desiredSeparation = desiredSeparation;
+        this.grid = null;
+    }
+
+    //variante indexada: consulta apenas as celulas da grelha dentro do raio
+    public Separation(SpatialGrid grid, float desiredSeparation, float weight) {
+        super(weight);
+        this.neighbors = grid.getBodies();
+        this.desiredSeparation = desiredSeparation;
+        this.grid = grid;
     }
 
     @Override
     public PVector getDesiredVelocity(Boid me) {
-        PVector steer = new PVector(0, 0);
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+        PVector pos = me.getPos();
+        out.set(0, 0);  //out acumula as contribuicoes de afastamento
         int count = 0;
 
-        for (Body b : neighbors) {
+        for (Body b : candidates(me)) {
             if (b == me) { continue;}  //ignora o proprio boid
 
-            float d = PVector.dist(me.getPos(), b.getPos());
+            float dx = pos.x - b.getPos().x;  //vetor que aponta para longe do vizinho
+            float dy = pos.y - b.getPos().y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
 
             if (d > 0 && d < desiredSeparation) {
-                PVector diff = PVector.sub(me.getPos(), b.getPos());  //vetor que aponta para longe do vizinho
-                diff.normalize();
-                diff.div(d);   //quanto mais perto, maior a forca
-                steer.add(diff);
+                out.add(dx / d / d, dy / d / d);   //normalizado e dividido por d: quanto mais perto, maior a forca
                 count++;
             }
         }
 
-        if (count > 0) { steer.div(count);}  //media das contribuicoes
+        if (count > 0) { out.div(count);}  //media das contribuicoes
 
         //steering
-        if (steer.magSq() > 0.00001f) {
-            steer.normalize();
-            steer.mult(me.dna.maxSpeed);  //velocidade desejada
-            steer.sub(me.getVel());  //steering = desired - vel
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed);  //velocidade desejada
+            out.sub(me.getVel());  //steering = desired - vel
         }
 
-        return steer;  //peso aplicado externamente no boid
+        return out;  //peso aplicado externamente no boid
+    }
+
+    //vizinhos a testar: celulas proximas se houver grelha, senao a lista completa
+    private List<? extends Body> candidates(Boid me) {
+        if (grid == null) { return neighbors;}
+        grid.query(me.getPos(), desiredSeparation, nearby);
+        return nearby;
     }
 }
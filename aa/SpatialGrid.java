@@ -0,0 +1,148 @@
+package aa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import physics.Body;
+import processing.core.PVector;
+
+/**
+ * Grelha espacial uniforme (spatial hash) para consultas de vizinhança entre boids.
+ *
+ * O SpatialGrid indexa uma lista de corpos por células quadradas de lado cellSize,
+ * permitindo que os behaviors de grupo (Alignment, Cohesion, Separation) consultem
+ * apenas os corpos das células que intersetam o seu raio, em vez de percorrer a
+ * lista inteira para cada boid.
+ *
+ * A grelha é reconstruída uma vez por frame (rebuild) a partir da lista associada:
+ *  - cada corpo é atribuído a uma célula (cx, cy) e a célula a um balde da tabela de hash
+ *  - os corpos são ordenados por balde (counting sort), ficando contíguos em memória
+ *  - os arrays internos só são realocados quando o número de corpos cresce
+ *
+ * As consultas devolvem candidatos: o teste de distância exato continua a ser feito
+ * pelo behavior. Como os boids se movem depois do rebuild, um vizinho pode estar
+ * ligeiramente fora da célula registada; com cellSize >= raio de consulta, o erro
+ * limita-se a vizinhos mesmo na fronteira do raio.
+ */
+
+public class SpatialGrid {
+
+    private final List<? extends Body> bodies;  //lista indexada (partilhada com os behaviors)
+    private final float cellSize;  //lado de cada celula
+
+    private int mask;  //tamanho da tabela - 1 (tamanho potencia de 2)
+    private int[] bucketStart;  //inicio de cada balde no array ordenado
+    private int[] bucketFill;  //cursor de preenchimento por balde
+
+    private Body[] sorted;  //corpos ordenados por balde
+    private int[] sortedCx, sortedCy;  //celula de cada entrada (evita duplicados por colisao de hash)
+    private int[] cellX, cellY, bucket;  //celula e balde de cada corpo, pela ordem da lista
+    private int count;
+
+    public SpatialGrid(List<? extends Body> bodies, float cellSize) {
+        this.bodies = bodies;
+        this.cellSize = cellSize;
+        ensureCapacity(16);
+    }
+
+    //reconstroi o indice a partir das posicoes atuais
+    public void rebuild() {
+        count = bodies.size();
+        ensureCapacity(count);
+
+        Arrays.fill(bucketStart, 0);
+
+        //1a passagem: celula de cada corpo e contagem por balde
+        for (int i = 0; i < count; i++) {
+            PVector pos = bodies.get(i).getPos();
+            int cx = cellCoord(pos.x);
+            int cy = cellCoord(pos.y);
+            int h = hash(cx, cy);
+
+            cellX[i] = cx;
+            cellY[i] = cy;
+            bucket[i] = h;
+            bucketStart[h + 1]++;
+        }
+
+        //soma prefixa: bucketStart[h] passa a ser o inicio do balde h
+        for (int h = 0; h <= mask; h++) {
+            bucketStart[h + 1] += bucketStart[h];
+        }
+        System.arraycopy(bucketStart, 0, bucketFill, 0, mask + 1);
+
+        //2a passagem: coloca cada corpo no seu balde
+        for (int i = 0; i < count; i++) {
+            int slot = bucketFill[bucket[i]]++;
+            sorted[slot] = bodies.get(i);
+            sortedCx[slot] = cellX[i];
+            sortedCy[slot] = cellY[i];
+        }
+
+        //limpa referencias antigas para nao reter inimigos removidos
+        for (int i = count; i < sorted.length && sorted[i] != null; i++) {
+            sorted[i] = null;
+        }
+    }
+
+    //preenche out com os corpos das celulas que intersetam o circulo (pos, radius)
+    public void query(PVector pos, float radius, List<Body> out) {
+        out.clear();
+        if (count == 0) { return;}
+
+        int minCx = cellCoord(pos.x - radius);
+        int maxCx = cellCoord(pos.x + radius);
+        int minCy = cellCoord(pos.y - radius);
+        int maxCy = cellCoord(pos.y + radius);
+
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cy = minCy; cy <= maxCy; cy++) {
+                int h = hash(cx, cy);
+
+                for (int k = bucketStart[h]; k < bucketStart[h + 1]; k++) {
+                    //o mesmo balde pode conter outras celulas (colisao de hash)
+                    if (sortedCx[k] == cx && sortedCy[k] == cy) {
+                        out.add(sorted[k]);
+                    }
+                }
+            }
+        }
+    }
+
+    public List<? extends Body> getBodies() {
+        return bodies;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    private int cellCoord(float v) {
+        return (int) Math.floor(v / cellSize);
+    }
+
+    private int hash(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & mask;
+    }
+
+    //realoca os arrays apenas quando ha mais corpos do que capacidade
+    private void ensureCapacity(int n) {
+        if (sorted != null && n <= sorted.length) { return;}
+
+        int cap = 16;
+        while (cap < n) { cap <<= 1;}
+
+        sorted = new Body[cap];
+        sortedCx = new int[cap];
+        sortedCy = new int[cap];
+        cellX = new int[cap];
+        cellY = new int[cap];
+        bucket = new int[cap];
+
+        //tabela com o dobro das entradas para manter poucos corpos por balde
+        int tableSize = cap * 2;
+        mask = tableSize - 1;
+        bucketStart = new int[tableSize + 1];
+        bucketFill = new int[tableSize];
+    }
+}
@@ -21,31 +21,41 @@ public class Wander extends Behavior {
 
     @Override
     public PVector getDesiredVelocity(Boid me) {
-        PVector centro = me.getPos().copy();  //centro da projeção à frente
-        
+        return getDesiredVelocity(me, new PVector());
+    }
+
+    @Override
+    public PVector getDesiredVelocity(Boid me, PVector out) {
+        PVector pos = me.getPos();
+        PVector vel = me.getVel();
+
+        //centro da projeção à frente
+        float cx = pos.x;
+        float cy = pos.y;
+
         //projecao na direcao do movimento para evitar wander "parado"
-        if (me.getVel().magSq() > 0.00001f) {
-            PVector forward = me.getVel().copy().normalize();
-            forward.mult(me.dna.deltaTWander); //distancia do circulo a frente
-            centro.add(forward);
+        float speedSq = vel.magSq();
+        if (speedSq > 0.00001f) {
+            float k = me.dna.deltaTWander / (float) Math.sqrt(speedSq); //distancia do circulo a frente
+            cx += vel.x * k;
+            cy += vel.y * k;
         }
-        
-        //offset no circulo de wander (raio fixo, angulo phiWander)
-        PVector offset = new PVector(me.dna.radiusWander * (float) Math.cos(me.phiWander), me.dna.radiusWander * (float) Math.sin(me.phiWander));
 
-        PVector target = PVector.add(centro, offset);
-        
+        //target = centro + offset no circulo de wander (raio fixo, angulo phiWander)
+        float tx = cx + me.dna.radiusWander * (float) Math.cos(me.phiWander);
+        float ty = cy + me.dna.radiusWander * (float) Math.sin(me.phiWander);
+
         //perturbacao pequena do angulo para manter transicao suave
-        me.phiWander += (float)(2 * (Math.random() - 0.5) * me.dna.deltaPhiWander);
-        
+        me.phiWander += (float)(2 * (me.random.nextDouble() - 0.5) * me.dna.deltaPhiWander); //gerador do proprio boid (determinista em paralelo)
+
         //desired velocity aponta do boid para o target, com maxSpeed
-        PVector desired = PVector.sub(target, me.getPos());
-        if (desired.magSq() > 0.00001f) {
-            desired.normalize();
-            desired.mult(me.dna.maxSpeed);
+        out.set(tx - pos.x, ty - pos.y);
+        if (out.magSq() > 0.00001f) {
+            out.normalize();
+            out.mult(me.dna.maxSpeed);
         }
-        
+
         //steering force = desired - velocidade atual
-        return PVector.sub(desired, me.getVel());
+        return out.sub(vel);
     }
 }
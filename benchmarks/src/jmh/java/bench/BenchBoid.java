@@ -0,0 +1,17 @@
+package bench;
+
+import aa.Boid;
+import aa.Type;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * Boid sem sprite nem comportamentos próprios (o construtor do Boid é protegido).
+ */
+
+final class BenchBoid extends Boid {
+
+    BenchBoid(PVector pos, PApplet p) {
+        super(pos, 1f, 8f, 0xFFFFFFFF, p, Type.PREY);
+    }
+}
@@ -0,0 +1,21 @@
+package bench;
+
+import game.Enemy;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * Inimigo sem sprite nem comportamentos, que nunca morre (a lista de inimigos não muda
+ * entre invocações do benchmark).
+ */
+
+final class BenchEnemy extends Enemy {
+
+    BenchEnemy(PVector pos, PApplet p) {
+        super(pos, 26f, null, p);
+        hp = Integer.MAX_VALUE;
+    }
+
+    @Override
+    protected void initBehaviors() {}
+}
@@ -0,0 +1,71 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import game.BroadPhase;
+import game.CollisionSystem;
+import game.Enemy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import particles.Projectile;
+import particles.ProjectileManager;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * BroadPhase.build + CollisionSystem.shotsVsEnemies com tiros e inimigos espalhados
+ * pelo ecrã (a maioria dos tiros falha).
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    private final List<Enemy> enemies = new ArrayList<>();
+    private final List<Projectile> template = new ArrayList<>();
+    private final List<Projectile> shots = new ArrayList<>();
+    private final BroadPhase broadPhase = new BroadPhase();
+    private List<Projectile> enemyShots;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PApplet p = Headless.applet();
+        Random rnd = new Random(7);
+        enemyShots = new ProjectileManager().getEnemyShots();
+
+        //inimigos na zona superior, com vida "infinita" para a lista nao mudar entre invocacoes
+        for (int i = 0; i < 60; i++) {
+            enemies.add(new BenchEnemy(new PVector(rnd.nextFloat() * p.width, 40 + rnd.nextFloat() * 200), p));
+        }
+
+        //tiros do jogador espalhados pelo ecra
+        for (int i = 0; i < 40; i++) {
+            template.add(new Projectile(new PVector(rnd.nextFloat() * p.width, rnd.nextFloat() * p.height),
+                    new PVector(0, -650), 3f, 1, 0xFFFFA500));
+        }
+    }
+
+    @Benchmark
+    public int shotsVsEnemies() {
+        shots.clear();
+        shots.addAll(template);  //tiros que acertaram sao removidos: repor
+        broadPhase.build(enemies, enemyShots);
+        return CollisionSystem.shotsVsEnemies(shots, enemies, broadPhase, null);
+    }
+}
@@ -0,0 +1,89 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import aa.Alignment;
+import aa.Behavior;
+import aa.Cohesion;
+import aa.Flocking;
+import aa.Separation;
+import aa.SpatialGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * Um passo do bando: rebuild do SpatialGrid + steering de todos os boids, para cada
+ * comportamento (separation, alignment, cohesion, flocking) e tamanho de bando.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlockBenchmark {
+
+    @Param({"50", "200", "800"})
+    int n;
+
+    @Param({"separation", "alignment", "cohesion", "flocking"})
+    String behavior;
+
+    private List<BenchBoid> boids;
+    private SpatialGrid grid;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PApplet p = Headless.applet();
+        Random rnd = new Random(42);
+
+        //n boids espalhados no ecra com o mesmo comportamento
+        boids = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            BenchBoid b = new BenchBoid(new PVector(rnd.nextFloat() * p.width, rnd.nextFloat() * p.height), p);
+            b.getVel().set(rnd.nextFloat() * 2 - 1, rnd.nextFloat() * 2 - 1);
+            boids.add(b);
+        }
+
+        grid = new SpatialGrid(boids, 60f);
+        for (BenchBoid b : boids) {
+            b.addBehavior(create(grid));
+        }
+    }
+
+    private Behavior create(SpatialGrid grid) {
+        switch (behavior) {
+            case "separation": return new Separation(grid, 30f, 1f);
+            case "alignment":  return new Alignment(grid, 60f, 1f);
+            case "cohesion":   return new Cohesion(grid, 60f, 1f);
+            case "flocking":   return new Flocking(grid, 60f, 1f, 1f, 30f, 1.5f);
+            default: throw new IllegalArgumentException("comportamento desconhecido: " + behavior);
+        }
+    }
+
+    @Benchmark
+    public void step(Blackhole bh) {
+        grid.rebuild();
+        for (int i = 0; i < boids.size(); i++) {
+            boids.get(i).computeSteering();  //guarda a forca no proprio boid (nao e codigo morto)
+        }
+        bh.consume(boids);
+    }
+}
@@ -0,0 +1,48 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import physics.Galaxy;
+import processing.core.PApplet;
+
+/**
+ * Galaxy.update (emissão e movimento das partículas do background do nível 3), com a
+ * população de partículas já estável.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GalaxyBenchmark {
+
+    private PApplet p;
+    private Galaxy galaxy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        p = Headless.applet();
+        galaxy = new Galaxy();
+        galaxy.onEnter(p);
+        for (int i = 0; i < 600; i++) { galaxy.update(p, 1f / 60f);}  //populacao estavel de particulas
+    }
+
+    @Benchmark
+    public int update() {
+        galaxy.update(p, 1f / 60f);
+        return galaxy.getParticleCount();
+    }
+}
@@ -0,0 +1,23 @@
+package bench;
+
+import processing.core.PApplet;
+
+/**
+ * PApplet sem sketch nem janela, só com width/height, para os benchmarks usarem os
+ * sistemas do jogo (cores, random, dimensões do ecrã) fora do ciclo do Processing.
+ */
+
+final class Headless {
+
+    static final int WIDTH = 800;
+    static final int HEIGHT = 600;
+
+    private Headless() { }
+
+    static PApplet applet() {
+        PApplet p = new PApplet();
+        p.width = WIDTH;
+        p.height = HEIGHT;
+        return p;
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import fractals.ByteLSystem;
+import fractals.LSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Geração de um L-system até uma geração fixa: LSystem.proxGen (String) contra
+ * ByteLSystem.proxGen, com as mesmas regras.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LSystemBenchmark {
+
+    @Param({"7"})
+    int generations;
+
+    @Benchmark
+    public int proxGen() {
+        LSystem ls = new LSystem("X");
+        ls.regra('X', "F[+X][-X]FX");
+        ls.regra('F', "FF");
+        for (int i = 0; i < generations; i++) { ls.proxGen();}
+        return ls.getSequence().length();
+    }
+
+    @Benchmark
+    public int byteProxGen() {
+        ByteLSystem ls = new ByteLSystem("X");
+        ls.regra('X', "F[+X][-X]FX");
+        ls.regra('F', "FF");
+        ls.proxGen(generations);
+        return ls.length();
+    }
+}
@@ -0,0 +1,58 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import particles.ProjectileManager;
+import processing.core.PApplet;
+import processing.core.PVector;
+
+/**
+ * ProjectileManager.update com um número fixo de tiros inimigos ativos (os que saem do
+ * ecrã são reciclados pelo update e repostos antes do passo seguinte).
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectileBenchmark {
+
+    private static final int ACTIVE = 120;
+
+    private final Random rnd = new Random(3);
+    private final PVector origin = new PVector();
+    private final PVector vel = new PVector();
+    private PApplet p;
+    private ProjectileManager manager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        p = Headless.applet();
+        manager = new ProjectileManager();
+    }
+
+    @Benchmark
+    public int update() {
+        while (manager.getEnemyShots().size() < ACTIVE) {
+            origin.set(rnd.nextFloat() * p.width, 0);
+            vel.set(rnd.nextFloat() * 200 - 100, 320);
+            manager.spawnCustomEnemyShot(origin, vel, 0xFFFF0000);
+        }
+        manager.update(p, 1f / 60f);
+        return manager.getParticleCount();
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.SubPlot;
+
+/**
+ * Conversão mundo -> pixel do SubPlot: getPixelCoord com e sem alocação e toPixel em lote.
+ * Cada invocação converte N pontos; os resultados são em ns por ponto.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubPlotBenchmark {
+
+    private static final int N = 1024;
+
+    private final double[] wx = new double[N];
+    private final double[] wy = new double[N];
+    private final double[] xy = new double[2 * N];
+    private final float[] out = new float[2];
+    private final float[] outBatch = new float[2 * N];
+    private SubPlot plt;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double[] window = {-1e12, 1e12, -1e12, 1e12};
+        float[] viewport = {0f, 0f, 1f, 1f};
+        plt = new SubPlot(window, viewport, Headless.WIDTH, Headless.HEIGHT);
+
+        Random rnd = new Random(11);
+        for (int i = 0; i < N; i++) {
+            wx[i] = (rnd.nextDouble() * 2 - 1) * 1e12;
+            wy[i] = (rnd.nextDouble() * 2 - 1) * 1e12;
+            xy[2 * i] = wx[i];
+            xy[2 * i + 1] = wy[i];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void getPixelCoord(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            bh.consume(plt.getPixelCoord(wx[i], wy[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public void getPixelCoordOut(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            plt.getPixelCoord(wx[i], wy[i], out);
+            bh.consume(out[0]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public float[] toPixel() {
+        plt.toPixel(xy, outBatch, N);
+        return outBatch;
+    }
+}
@@ -0,0 +1,136 @@
+package fractals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+/**
+ * L-System compacto para gerar gerações profundas rapidamente (ex: no arranque).
+ *
+ * Diferenças em relação ao LSystem:
+ *  - a sequência é um byte[] (um byte por símbolo, só símbolos ascii)
+ *  - as regras estão numa tabela densa indexada pelo próprio símbolo (sem HashMap nem boxing)
+ *  - proxGen() é paralelo para sequências grandes:
+ *      1. a sequência é dividida em blocos
+ *      2. cada bloco calcula (em paralelo) o tamanho da sua expansão
+ *      3. uma soma de prefixos dá a posição de escrita de cada bloco
+ *      4. cada bloco expande (em paralelo) diretamente para o array de saída
+ *
+ * O paralelismo usa a pool ForkJoin comum (parallel streams). O resultado é
+ * idêntico ao de LSystem.proxGen, e toLSystem() converte-o para ser usado
+ * pela Turtle e pela TurtleGeometry.
+ */
+
+public class ByteLSystem {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16;  //abaixo disto a expansao e sequencial
+    private static final int CHUNK = 1 << 14;  //simbolos por bloco
+
+    private final String axioma;
+    private final byte[][] regras = new byte[128][];  //regra de cada simbolo (null -> mantem)
+    private byte[] sequencia;
+    private int generation;
+
+    public ByteLSystem(String axioma) {
+        this.axioma = axioma;
+        this.sequencia = encode(axioma);
+    }
+
+    //adiciona uma regra de substituicao para um simbolo
+    public void regra(char simbolo, String substituto) {
+        regras[checkSymbol(simbolo)] = encode(substituto);
+    }
+
+    //avanca varias geracoes
+    public void proxGen(int n) {
+        for (int i = 0; i < n; i++) { proxGen();}
+    }
+
+    //avanca uma geracao (paralelo para sequencias grandes)
+    public void proxGen() {
+        generation++;
+        byte[] in = sequencia;
+
+        if (in.length < PARALLEL_THRESHOLD) {
+            byte[] out = new byte[Math.toIntExact(expandedLength(in, 0, in.length))];
+            expand(in, 0, in.length, out, 0);
+            sequencia = out;
+            return;
+        }
+
+        int chunks = (in.length + CHUNK - 1) / CHUNK;
+
+        //tamanho da expansao de cada bloco
+        long[] offset = new long[chunks + 1];
+        IntStream.range(0, chunks).parallel().forEach(k -> {
+            int from = k * CHUNK;
+            offset[k + 1] = expandedLength(in, from, Math.min(from + CHUNK, in.length));
+        });
+
+        //soma de prefixos: posicao de escrita de cada bloco
+        for (int k = 0; k < chunks; k++) { offset[k + 1] += offset[k];}
+
+        byte[] out = new byte[Math.toIntExact(offset[chunks])];  //falha se exceder o tamanho maximo de um array
+        IntStream.range(0, chunks).parallel().forEach(k -> {
+            int from = k * CHUNK;
+            expand(in, from, Math.min(from + CHUNK, in.length), out, (int) offset[k]);
+        });
+
+        sequencia = out;
+    }
+
+    private long expandedLength(byte[] in, int from, int to) {
+        long len = 0;
+        for (int i = from; i < to; i++) {
+            byte[] r = regras[in[i]];
+            len += (r != null) ? r.length : 1;
+        }
+        return len;
+    }
+
+    private void expand(byte[] in, int from, int to, byte[] out, int pos) {
+        for (int i = from; i < to; i++) {
+            byte[] r = regras[in[i]];
+            if (r != null) {
+                System.arraycopy(r, 0, out, pos, r.length);
+                pos += r.length;
+            } else {
+                out[pos++] = in[i];
+            }
+        }
+    }
+
+    //converte para LSystem (mesmas regras e geracao, sequencia ja expandida)
+    public LSystem toLSystem() {
+        LSystem ls = new LSystem(axioma);
+        for (int c = 0; c < regras.length; c++) {
+            if (regras[c] != null) { ls.regra((char) c, new String(regras[c], StandardCharsets.ISO_8859_1));}
+        }
+        ls.setState(new String(sequencia, StandardCharsets.ISO_8859_1), generation);
+        return ls;
+    }
+
+    public byte[] getSequence() {
+        return sequencia;
+    }
+
+    public int length() {
+        return sequencia.length;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    private static byte[] encode(String s) {
+        byte[] b = new byte[s.length()];
+        for (int i = 0; i < s.length(); i++) {
+            b[i] = (byte) checkSymbol(s.charAt(i));
+        }
+        return b;
+    }
+
+    private static int checkSymbol(char c) {
+        if (c >= 128) { throw new IllegalArgumentException("simbolo nao ascii: " + c);}
+        return c;
+    }
+}
@@ -13,6 +13,9 @@ import processing.core.PApplet;
  * Inclui também métodos para Turtle, com parâmetros ajustados
  * (comprimento do segmento e ângulo) para renderizar cada árvore de forma consistente.
  *
+ * As gerações dos presets são calculadas com ByteLSystem (sequência em bytes,
+ * expansão paralela), para que profundidades altas no arranque escalem com os núcleos.
+ *
  * Esta classe não desenha diretamente: apenas devolve estruturas (LSystem e Turtle)
  * prontas a serem renderizadas noutras partes do jogo.
  */
@@ -21,37 +24,37 @@ public class Fractals {
 	
 	//arvore com ramificacao simetrica e alongamento
     public static LSystem tree1(int generations) {
-        LSystem ls = new LSystem("X");
+        ByteLSystem ls = new ByteLSystem("X");
         ls.regra('X', "F[+X][-X]FX");
         ls.regra('F', "FF");
-        for (int i = 0; i < generations; i++) ls.proxGen();
-        return ls;
+        ls.proxGen(generations);
+        return ls.toLSystem();
     }
     
     //variacao com ramificacao e assimetria ligeira
     public static LSystem tree2(int generations) {
-        LSystem ls = new LSystem("X");
+        ByteLSystem ls = new ByteLSystem("X");
         ls.regra('X', "F[+X]F[-X]+X");
         ls.regra('F', "FF");
-        for (int i = 0; i < generations; i++) ls.proxGen();
-        return ls;
+        ls.proxGen(generations);
+        return ls.toLSystem();
     }
     
     //estrutura mais simples, focada em ramificacao
     public static LSystem tree3(int generations) {
-        LSystem ls = new LSystem("X");
+        ByteLSystem ls = new ByteLSystem("X");
         ls.regra('X', "F[+X][-X]");
         ls.regra('F', "FF");
-        for (int i = 0; i < generations; i++) ls.proxGen();
-        return ls;
+        ls.proxGen(generations);
+        return ls.toLSystem();
     }
     
    //arvore baseada apenas em f, com varias ramificacoes por segmento
     public static LSystem tree4(int generations) {
-        LSystem ls = new LSystem("F");
+        ByteLSystem ls = new ByteLSystem("F");
         ls.regra('F', "F[+F]F[-F][F]");
-        for (int i = 0; i < generations; i++) ls.proxGen();
-        return ls;
+        ls.proxGen(generations);
+        return ls.toLSystem();
     }
     
     //turtles com parametros ajustados a cada preset (step e angulo)
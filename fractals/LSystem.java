@@ -13,6 +13,11 @@ package fractals;
  *
  * Esta classe é usada como base para a geração de fractais (árvores),
  * sendo posteriormente interpretada por uma Turtle para renderização.
+ *
+ * Para gerações profundas a sequência não precisa de existir em memória:
+ * proxGenLazy() só avança o contador e symbols() devolve um SymbolStream que
+ * expande as regras a partir do axioma com memória O(gerações). A String só é
+ * construída se alguém chamar getSequence().
  */
 
 import java.util.HashMap;
@@ -20,21 +25,35 @@ import java.util.HashMap;
 public class LSystem {
 	
 	//sequência atual, regras de substituição e contador de gerações
-    private String sequencia;
+    private final String axioma;
+    private String sequencia;  //null -> geracao ainda nao materializada (modo lazy)
     private HashMap<Character, String> conjuntoRegras;
     private int generation;
 
     //construtor: inicializa com o axioma base e prepara o conjunto de regras
     public LSystem(String axioma) {
+    	this.axioma = axioma;
     	sequencia = axioma;
     	conjuntoRegras = new HashMap<>();
         generation = 0;
     }
 
-    //retorna a sequência atual do l-system
+    //retorna a sequência atual do l-system (construida a partir do stream se estiver em modo lazy)
     public String getSequence() {
+        if (sequencia == null) {
+            StringBuilder sb = new StringBuilder();
+            SymbolStream s = symbols();
+            while (s.hasNext()) { sb.append(s.next());}
+            sequencia = sb.toString();
+        }
         return sequencia;
     }
+
+    //simbolos da geracao atual, sem construir a sequencia completa
+    public SymbolStream symbols() {
+        if (sequencia != null) { return new SymbolStream(sequencia, 0, conjuntoRegras);}  //ja existe: percorre-a
+        return new SymbolStream(axioma, generation, conjuntoRegras);
+    }
     
     //retorna o número de gerações aplicadas
     public int getGeneration() {
@@ -48,16 +67,31 @@ public class LSystem {
 
     //avança para a próxima geração aplicando todas as regras
     public void proxGen() {
+        String atual = getSequence();
         generation++;
 
         //stringBuilder para a concatenação de strings
         StringBuilder proxGen = new StringBuilder();
         
-        for (int i = 0; i < sequencia.length(); i++) {
-            char c = sequencia.charAt(i);
-            proxGen.append(conjuntoRegras.getOrDefault(c, "" + c));  //se existir regra, substitui, caso contrario, mantem o simbolo
+        for (int i = 0; i < atual.length(); i++) {
+            char c = atual.charAt(i);
+            String sub = conjuntoRegras.get(c);
+            if (sub != null) { proxGen.append(sub);}  //se existir regra, substitui
+            else { proxGen.append(c);}  //caso contrario, mantem o simbolo (sem criar strings)
         }
         
         this.sequencia = proxGen.toString(); //atualiza a sequencia para a proxima geraçao
     }
+
+    //estado ja gerado externamente (ex: ByteLSystem)
+    void setState(String sequencia, int generation) {
+        this.sequencia = sequencia;
+        this.generation = generation;
+    }
+
+    //avança uma geração sem construir a sequência (expandida a pedido por symbols())
+    public void proxGenLazy() {
+        generation++;
+        sequencia = null;
+    }
 }
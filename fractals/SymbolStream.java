@@ -0,0 +1,84 @@
+package fractals;
+
+import java.util.Map;
+
+/**
+ * Iterador preguiçoso sobre os símbolos de uma geração de um L-System.
+ *
+ * Em vez de construir a String completa da geração n (que cresce exponencialmente),
+ * o SymbolStream expande as regras a pedido com uma pilha explícita de níveis:
+ *  - o nível 0 é a sequência de partida (axioma)
+ *  - um símbolo no nível k < n com regra é substituído, empilhando a regra no nível k + 1
+ *  - um símbolo sem regra, ou já no nível n, é devolvido por next()
+ *
+ * A memória usada é O(n) (uma string e um índice por nível), independentemente do
+ * tamanho da geração, e não há alocação por símbolo.
+ *
+ * Uso típico:
+ *     SymbolStream s = lsys.symbols();
+ *     while (s.hasNext()) { char c = s.next(); ... }
+ */
+
+public class SymbolStream {
+
+    private final String[] dense = new String[128];  //regras dos simbolos ascii (acesso direto)
+    private final Map<Character, String> rules;  //restantes simbolos
+    private final int depth;
+
+    private final String[] level;  //string a percorrer em cada nivel
+    private final int[] index;  //proximo simbolo em cada nivel
+    private int top;
+
+    private char pending;
+    private boolean hasPending;
+
+    SymbolStream(String start, int depth, Map<Character, String> rules) {
+        this.rules = rules;
+        this.depth = depth;
+        for (Map.Entry<Character, String> r : rules.entrySet()) {
+            char c = r.getKey();
+            if (c < dense.length) { dense[c] = r.getValue();}
+        }
+
+        level = new String[depth + 1];
+        index = new int[depth + 1];
+        level[0] = start;
+        top = 0;
+    }
+
+    public boolean hasNext() {
+        if (!hasPending) { hasPending = advance();}
+        return hasPending;
+    }
+
+    public char next() {
+        if (!hasNext()) { throw new java.util.NoSuchElementException();}
+        hasPending = false;
+        return pending;
+    }
+
+    //desce pela pilha ate encontrar o proximo simbolo terminal
+    private boolean advance() {
+        while (top >= 0) {
+            if (index[top] >= level[top].length()) {  //nivel esgotado: volta ao anterior
+                top--;
+                continue;
+            }
+
+            char c = level[top].charAt(index[top]++);
+            if (top < depth) {
+                String rule = c < dense.length ? dense[c] : rules.get(c);
+                if (rule != null) {  //expande para o nivel seguinte
+                    top++;
+                    level[top] = rule;
+                    index[top] = 0;
+                    continue;
+                }
+            }
+
+            pending = c;
+            return true;
+        }
+        return false;
+    }
+}
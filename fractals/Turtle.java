@@ -17,6 +17,9 @@ import processing.core.PApplet;
  * Existem dois modos de renderização:
  *  - render(LSystem, PApplet, double, double, double, double): converte len para píxeis a partir de limites do mundo
  *  - renderPixels(LSystem, PApplet): desenha diretamente em coordenadas locais/píxeis
+ *
+ * Para desenhar a mesma árvore muitas vezes, compile(LSystem) devolve uma TurtleGeometry
+ * com os segmentos já calculados (mesmo resultado que renderPixels, uma única chamada).
  */
 public class Turtle {
 	private float len, angle;
@@ -36,6 +39,19 @@ public class Turtle {
 	    p.rotate(-orientation); //sinal invertido para alinhar orientacao com o referencial do processing
 	}
 	
+	//interpreta a sequencia uma vez e devolve os segmentos prontos a desenhar
+	public TurtleGeometry compile(LSystem lsys) {
+		return TurtleGeometry.compile(lsys, this);
+	}
+
+	public float getLen() {
+		return len;
+	}
+
+	public float getAngle() {
+		return angle;
+	}
+
 	//aplica escala do comprimento dos segmentos
 	public void scaling(float s) {
 		len *= s;
@@ -46,8 +62,9 @@ public class Turtle {
 		
 	    float lenPix = (float) (len / (maxX - minX) * p.width); //converte len do mundo para pixels com base na largura da janela
 	    
-	    for (int i = 0; i < lsys.getSequence().length(); i++) {
-	        char c = lsys.getSequence().charAt(i);
+	    SymbolStream s = lsys.symbols();  //expansao a pedido (nao precisa da sequencia completa)
+	    while (s.hasNext()) {
+	        char c = s.next();
 	        if (c == 'F' || c == 'G') {
 	            p.line(0, 0, lenPix, 0);
 	            p.translate(lenPix, 0);
@@ -65,8 +82,9 @@ public class Turtle {
 	
 	//desenha em coordenadas locais
 	public void renderPixels(LSystem lsys, PApplet p) {
-	    for (int i = 0; i < lsys.getSequence().length(); i++) {
-	        char c = lsys.getSequence().charAt(i);
+	    SymbolStream s = lsys.symbols();
+	    while (s.hasNext()) {
+	        char c = s.next();
 
 	        if (c == 'F' || c == 'G') {
 	            p.line(0, 0, len, 0);
@@ -0,0 +1,129 @@
+package fractals;
+
+import java.util.Arrays;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+import processing.core.PShape;
+
+/**
+ * Geometria de um L-System já interpretada por uma Turtle ("compilada").
+ *
+ * Em vez de percorrer a sequência a cada frame e fazer uma chamada de
+ * line/translate/rotate/pushMatrix por símbolo, a sequência é interpretada
+ * uma única vez com uma pilha própria de estados (x, y, direção) e os segmentos
+ * resultantes ficam guardados num buffer plano [x0, y0, x1, y1, ...] em
+ * coordenadas locais (as mesmas de Turtle.renderPixels).
+ *
+ * Para desenhar, os segmentos são convertidos (uma vez) num PShape do tipo LINES
+ * sem estilo próprio: cada instância desenha-se com uma única chamada shape(),
+ * usando o stroke e a transformação atuais (translate/rotate/scale da árvore).
+ */
+
+public class TurtleGeometry {
+
+    private float[] segments;  //x0, y0, x1, y1 por segmento
+    private int segmentCount;
+    private PShape shape;  //criado no primeiro display
+
+    private TurtleGeometry(float[] segments, int segmentCount) {
+        this.segments = segments;
+        this.segmentCount = segmentCount;
+    }
+
+    //interpreta a sequencia uma vez: F/G desenham e avancam, +/- rodam, [ ] guardam/restauram o estado
+    public static TurtleGeometry compile(LSystem lsys, Turtle turtle) {
+        SymbolStream seq = lsys.symbols();  //funciona tambem para geracoes lazy (sem a string completa)
+        float len = turtle.getLen();
+        float angle = turtle.getAngle();
+
+        float[] seg = new float[64];
+        int count = 0;
+
+        float[] stack = new float[3 * 16];  //x, y, direcao por nivel de ramificacao
+        int top = 0;
+
+        float x = 0, y = 0, heading = 0;
+        while (seq.hasNext()) {
+            char c = seq.next();
+
+            if (c == 'F' || c == 'G') {
+                float nx = x + len * (float) Math.cos(heading);
+                float ny = y + len * (float) Math.sin(heading);
+
+                if (4 * count + 4 > seg.length) { seg = Arrays.copyOf(seg, seg.length * 2);}
+                seg[4 * count] = x;
+                seg[4 * count + 1] = y;
+                seg[4 * count + 2] = nx;
+                seg[4 * count + 3] = ny;
+                count++;
+
+                x = nx;
+                y = ny;
+            } else if (c == '+') {
+                heading += angle;
+            } else if (c == '-') {
+                heading -= angle;
+            } else if (c == '[') {
+                if (top + 3 > stack.length) { stack = Arrays.copyOf(stack, stack.length * 2);}
+                stack[top++] = x;
+                stack[top++] = y;
+                stack[top++] = heading;
+            } else if (c == ']' && top > 0) {
+                heading = stack[--top];
+                y = stack[--top];
+                x = stack[--top];
+            }
+        }
+
+        return new TurtleGeometry(Arrays.copyOf(seg, 4 * count), count);
+    }
+
+    //desenha todos os segmentos numa so chamada, com o stroke e a matriz atuais
+    public void display(PApplet p) {
+        if (shape == null) { shape = buildShape(p);}
+        p.shape(shape);
+    }
+
+    //mesmo desenho num PGraphics (ex: camada offscreen)
+    public void display(PGraphics g) {
+        if (shape == null) { shape = fillShape(g.createShape());}
+        g.shape(shape);
+    }
+
+    //maior distancia de um ponto da arvore a origem (para dimensionar camadas)
+    public float getExtent() {
+        float maxSq = 0;
+        for (int i = 0; i < 4 * segmentCount; i += 2) {
+            float d = segments[i] * segments[i] + segments[i + 1] * segments[i + 1];
+            if (d > maxSq) { maxSq = d;}
+        }
+        return (float) Math.sqrt(maxSq);
+    }
+
+    //PShape de linhas sem estilo proprio (usa o stroke de quem desenha)
+    private PShape buildShape(PApplet p) {
+        return fillShape(p.createShape());
+    }
+
+    private PShape fillShape(PShape s) {
+        s.beginShape(PConstants.LINES);
+        for (int i = 0; i < 4 * segmentCount; i += 4) {
+            s.vertex(segments[i], segments[i + 1]);
+            s.vertex(segments[i + 2], segments[i + 3]);
+        }
+        s.endShape();
+        s.disableStyle();
+        return s;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    //buffer plano [x0, y0, x1, y1, ...] (nao copiar por frame)
+    public float[] getSegments() {
+        return segments;
+    }
+}
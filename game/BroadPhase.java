@@ -0,0 +1,147 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+import particles.Projectile;
+
+/**
+ * Fase larga (broad phase) da deteção de colisões, por sweep-and-prune no eixo x.
+ *
+ * O BroadPhase é construído uma vez por frame pelo PlayState, depois de inimigos e
+ * projéteis se moverem, e indexa duas listas:
+ *  - inimigos (alvos dos tiros do jogador)
+ *  - tiros inimigos (que podem atingir o jogador)
+ *
+ * Cada lista é ordenada pela coordenada x do centro. Uma consulta (x, raio) devolve
+ * apenas os elementos cujo intervalo em x pode intersetar o círculo pedido, usando
+ * pesquisa binária, em vez de testar todos os pares. O teste exato (círculo vs círculo)
+ * continua a ser feito pelo CollisionSystem.
+ *
+ * Os candidatos são devolvidos como índices nas listas originais, pelo que o índice
+ * só é válido enquanto essas listas não forem alteradas (o CollisionSystem adia as
+ * remoções para o fim de cada teste).
+ */
+
+public class BroadPhase {
+
+    private final Axis enemyAxis = new Axis();
+    private final Axis enemyShotAxis = new Axis();
+
+    //reconstroi os dois indices a partir das posicoes atuais
+    public void build(List<Enemy> enemies, List<Projectile> enemyShots) {
+        enemyAxis.begin(enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy e = enemies.get(i);
+            enemyAxis.add(i, e.getPos().x, e.getRadius());
+        }
+        enemyAxis.sort();
+
+        enemyShotAxis.begin(enemyShots.size());
+        for (int i = 0; i < enemyShots.size(); i++) {
+            Projectile s = enemyShots.get(i);
+            enemyShotAxis.add(i, s.getPos().x, s.getRadius());
+        }
+        enemyShotAxis.sort();
+    }
+
+    //inimigos que podem intersetar o circulo (x, radius); devolve o numero de candidatos
+    int queryEnemies(float x, float radius) {
+        return enemyAxis.query(x, radius);
+    }
+
+    //indice (na lista de inimigos) do k-esimo candidato da ultima consulta
+    int enemyCandidate(int k) {
+        return enemyAxis.candidates[k];
+    }
+
+    //tiros inimigos que podem intersetar o circulo (x, radius)
+    int queryEnemyShots(float x, float radius) {
+        return enemyShotAxis.query(x, radius);
+    }
+
+    int enemyShotCandidate(int k) {
+        return enemyShotAxis.candidates[k];
+    }
+
+    /**
+     * Eixo ordenado de um conjunto de círculos.
+     *
+     * A ordenação usa chaves long (x ordenável nos 32 bits altos, índice nos baixos)
+     * e Arrays.sort primitivo, sem objetos nem comparadores.
+     */
+    private static class Axis {
+        private long[] keys = new long[32];
+        private float[] sortedX = new float[32];
+        private int[] sortedIndex = new int[32];
+        private float[] radiusByIndex = new float[32];
+        private int[] candidates = new int[32];
+
+        private int n;
+        private float maxRadius;
+
+        void begin(int count) {
+            if (keys.length < count) {
+                int cap = Math.max(count, keys.length * 2);
+                keys = new long[cap];
+                sortedX = new float[cap];
+                sortedIndex = new int[cap];
+                radiusByIndex = new float[cap];
+                candidates = new int[cap];
+            }
+            n = 0;
+            maxRadius = 0;
+        }
+
+        void add(int index, float x, float radius) {
+            keys[n++] = ((long) sortableBits(x) << 32) | (index & 0xffffffffL);
+            radiusByIndex[index] = radius;
+            if (radius > maxRadius) { maxRadius = radius;}
+        }
+
+        void sort() {
+            Arrays.sort(keys, 0, n);
+            for (int k = 0; k < n; k++) {
+                int index = (int) keys[k];
+                sortedIndex[k] = index;
+                sortedX[k] = fromSortableBits((int) (keys[k] >> 32));
+            }
+        }
+
+        //candidatos com |x - xi| <= radius + ri (intervalos em x sobrepostos)
+        int query(float x, float radius) {
+            float reach = radius + maxRadius;
+            int k = lowerBound(x - reach);
+            int count = 0;
+
+            for (; k < n && sortedX[k] <= x + reach; k++) {
+                int index = sortedIndex[k];
+                if (Math.abs(sortedX[k] - x) <= radius + radiusByIndex[index]) {
+                    candidates[count++] = index;
+                }
+            }
+            return count;
+        }
+
+        //primeira posicao com sortedX >= v
+        private int lowerBound(float v) {
+            int lo = 0, hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sortedX[mid] < v) { lo = mid + 1;}
+                else { hi = mid;}
+            }
+            return lo;
+        }
+
+        //bits de um float convertidos para que a ordem inteira siga a ordem numerica
+        private static int sortableBits(float v) {
+            int bits = Float.floatToIntBits(v);
+            return bits ^ ((bits >> 31) & 0x7fffffff);
+        }
+
+        private static float fromSortableBits(int bits) {
+            return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7fffffff));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package game;
 
 import java.util.List;
 import particles.Projectile;
+import particles.ProjectileManager;
 import processing.core.PVector;
 
 /**
@@ -15,6 +16,13 @@ import processing.core.PVector;
  *  - gerir impacto de tiros do jogador em inimigos (aplicar dano, remover inimigos, contar kills)
  *  - detetar impacto de tiros inimigos no jogador (remover tiro e sinalizar hit)
  *
+ * Os testes têm duas versões: a direta (todos os pares) e uma que recebe um BroadPhase
+ * construído no mesmo frame, testando apenas os candidatos próximos em x. Ambas mantêm
+ * a mesma semântica: o primeiro impacto consome o tiro e inimigos mortos contam como kills.
+ *
+ * Cada teste é registado como evento JFR (GameEvents.Collision) com o número de tiros,
+ * alvos e impactos.
+ *
  * Esta classe não desenha nada e não mantém estado interno.
  */
 
@@ -33,6 +41,13 @@ public class CollisionSystem {
     //retorna quantos inimigos morreram (para score)
     //percorre de tras para a frente para remover com seguranca
     public static int shotsVsEnemies(List<Projectile> shots, List<Enemy> enemies) {
+        return shotsVsEnemies(shots, enemies, null);
+    }
+
+    //variante que devolve ao pool do ProjectileManager os tiros que acertaram
+    public static int shotsVsEnemies(List<Projectile> shots, List<Enemy> enemies, ProjectileManager recycler) {
+        GameEvents.Collision ev = GameEvents.Collision.start();
+        int shotCount = shots.size(), enemyCount = enemies.size();
         int kills = 0;
         int damagePerShot = 1; //dano base por tiro (hp varia por nivel)
 
@@ -58,14 +73,72 @@ public class CollisionSystem {
                 }
             }
  
-            if (hit) { shots.remove(si);} //se acertar no jogador, remove o tiro e devolve true
+            if (hit) { 
+            	shots.remove(si); //tiro consumido pelo impacto
+            	if (recycler != null) { recycler.recycle(s);}
+            }
         }
 
+        ev.finish("shotsVsEnemies", shotCount, enemyCount, shotCount - shots.size(), false);
         return kills;
     }
     
+    //tiros do player vs inimigos, usando o broad phase do frame atual
+    //mesma ordem de resolucao da versao direta: tiros de tras para a frente e, para cada tiro,
+    //o inimigo vivo com maior indice; as remocoes sao feitas no fim para manter os indices validos
+    public static int shotsVsEnemies(List<Projectile> shots, List<Enemy> enemies, BroadPhase broadPhase, ProjectileManager recycler) {
+        GameEvents.Collision ev = GameEvents.Collision.start();
+        int shotCount = shots.size(), enemyCount = enemies.size();
+        int kills = 0;
+        int damagePerShot = 1; //dano base por tiro (hp varia por nivel)
+        boolean anyHit = false;
+
+        for (int si = shots.size() - 1; si >= 0; si--) {
+            Projectile s = shots.get(si);
+            int target = -1;
+
+            int n = broadPhase.queryEnemies(s.getPos().x, s.getRadius());
+            for (int k = 0; k < n; k++) {
+                int ei = broadPhase.enemyCandidate(k);
+                if (ei <= target) { continue;}
+
+                Enemy e = enemies.get(ei);
+                //inimigos mortos neste frame ja nao contam (na versao direta ja teriam sido removidos)
+                if (!e.isDead() && circles(s.getPos(), s.getRadius(), e.getPos(), e.getRadius())) {
+                    target = ei;
+                }
+            }
+
+            if (target < 0) { continue;}
+
+            Enemy e = enemies.get(target);
+            e.takeDamage(damagePerShot); //leva dano
+            if (e.isDead()) { kills++;} //conta para score (removido no fim)
+
+            //tiro desaparece quando acerta
+            shots.set(si, null);
+            if (recycler != null) { recycler.recycle(s);}
+            anyHit = true;
+        }
+
+        if (anyHit) { removeNulls(shots);}
+        if (kills > 0) { enemies.removeIf(Enemy::isDead);}
+
+        ev.finish("shotsVsEnemies", shotCount, enemyCount, shotCount - shots.size(), true);
+        return kills;
+    }
+
     //tiros inimigos vs player
     public static boolean enemyShotsVsPlayer(List<Projectile> shots, Player player) {
+        return enemyShotsVsPlayer(shots, player, null);
+    }
+
+    //variante que devolve ao pool do ProjectileManager o tiro que acertou
+    public static boolean enemyShotsVsPlayer(List<Projectile> shots, Player player, ProjectileManager recycler) {
+        GameEvents.Collision ev = GameEvents.Collision.start();
+        int shotCount = shots.size();
+        boolean hit = false;
+
         for (int i = shots.size() - 1; i >= 0; i--) {
         	
         	Projectile s = shots.get(i);
@@ -73,10 +146,50 @@ public class CollisionSystem {
         	//se acertar no jogador, remove o tiro e sinaliza hit
             if (circles(s.getPos(), s.getRadius(), player.getPos(), player.getRadius())) {
                 shots.remove(i);    
-                return true;
+                if (recycler != null) { recycler.recycle(s);}
+                hit = true;
+                break;
+            }
+        }
+
+        ev.finish("enemyShotsVsPlayer", shotCount, 1, hit ? 1 : 0, false);
+        return hit;
+    }
+
+    //tiros inimigos vs player, usando o broad phase do frame atual
+    //tal como na versao direta, e removido o tiro com maior indice que acerta no jogador
+    public static boolean enemyShotsVsPlayer(List<Projectile> shots, Player player, BroadPhase broadPhase, ProjectileManager recycler) {
+        GameEvents.Collision ev = GameEvents.Collision.start();
+        int shotCount = shots.size();
+        int hitIndex = -1;
+
+        int n = broadPhase.queryEnemyShots(player.getPos().x, player.getRadius());
+        for (int k = 0; k < n; k++) {
+            int i = broadPhase.enemyShotCandidate(k);
+            if (i <= hitIndex) { continue;}
+
+            Projectile s = shots.get(i);
+            if (circles(s.getPos(), s.getRadius(), player.getPos(), player.getRadius())) {
+                hitIndex = i;
             }
         }
-        return false;
+
+        if (hitIndex >= 0) {
+            Projectile s = shots.remove(hitIndex);
+            if (recycler != null) { recycler.recycle(s);}
+        }
+
+        ev.finish("enemyShotsVsPlayer", shotCount, 1, (hitIndex >= 0) ? 1 : 0, true);
+        return hitIndex >= 0;
+    }
+
+    //remove as entradas null numa unica passagem (sem deslocar a lista a cada remocao)
+    private static void removeNulls(List<Projectile> list) {
+        int w = 0;
+        for (int r = 0; r < list.size(); r++) {
+            Projectile item = list.get(r);
+            if (item != null) { list.set(w++, item);}
+        }
+        list.subList(w, list.size()).clear();
     }
-  
 }
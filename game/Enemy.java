@@ -36,7 +36,7 @@ public abstract class Enemy extends Boid {
 
     protected Enemy(PVector pos, float radius, PImage sprite, PApplet p) {
     	//boid base: massa 1, cor default, tipo predator
-        super(pos, 1.0f, radius, p.color(255), p, Type.PREDATOR);
+        super(pos, 1.0f, radius, 0xFFFFFFFF, p, Type.PREDATOR);
         
         this.sprite = sprite;
         
@@ -55,8 +55,8 @@ public abstract class Enemy extends Boid {
     protected abstract void initBehaviors();
 
     @Override
-    public void applyBehaviors(float dt) {
-        super.applyBehaviors(dt);
+    public void integrate(float dt) {
+        super.integrate(dt);
         
         keepVertical(); //impede que saia da zona vertical permitida
         
@@ -78,35 +78,51 @@ public abstract class Enemy extends Boid {
     public void display(PApplet p) {
     	//se houver sprite, desenha com tint para efeito de dano
         if (sprite != null) {
-            p.pushMatrix();
-            p.translate(pos.x, pos.y);
-
-            p.imageMode(PConstants.CENTER);
-            
-            //se levou dano desenha com alpha mais baixo (ou a piscar)
-            p.pushStyle();
-            if (damageFlashTimer > 0f) {
-            	//efeito piscar: alterna alpha para criar feedback de hit
-            	float blink;
-            	if (((int)(damageFlashTimer * 60) % 2) == 0) {
-            	    blink = 80f;
-            	} else {
-            	    blink = 255f;
-            	}
-                p.tint(255, blink);
-            } else {
-                p.tint(255, 255);
-            }
-
-            p.image(sprite, 0, 0, radius * 2, radius * 2);
-            p.popStyle();
-            p.popMatrix();
-            
+            drawSprite(p, sprite, pos.x, pos.y, radius, tintAlpha());
         } else { 
             super.display(p); //se não houver sprite usa o display do boid (triangulo)
         }
     }
 
+    //desenho interpolado entre o passo anterior e o atual
+    @Override
+    public void display(PApplet p, float alpha) {
+        if (sprite != null) {
+            drawSprite(p, sprite, renderX(alpha), renderY(alpha), radius, tintAlpha());
+        } else {
+            super.display(p, alpha);
+        }
+    }
+
+    //alpha do tint: se levou dano desenha com alpha mais baixo (ou a piscar)
+    public float tintAlpha() {
+        if (damageFlashTimer > 0f) {
+        	//efeito piscar: alterna alpha para criar feedback de hit
+        	if (((int)(damageFlashTimer * 60) % 2) == 0) {
+        	    return 80f;
+        	}
+        }
+        return 255f;
+    }
+
+    //desenha o sprite do inimigo a partir de valores copiados (usado tambem pelos snapshots de render)
+    public static void drawSprite(PApplet p, PImage sprite, float x, float y, float radius, float alpha) {
+        p.pushMatrix();
+        p.translate(x, y);
+
+        p.imageMode(PConstants.CENTER);
+
+        p.pushStyle();
+        p.tint(255, alpha);
+        p.image(sprite, 0, 0, radius * 2, radius * 2);
+        p.popStyle();
+        p.popMatrix();
+    }
+
+    public PImage getSprite() {
+        return sprite;
+    }
+
     public void takeDamage(int damage) {
         hp -= damage;
         damageFlashTimer = damageFlashDuration; //ativa animacao de hit
@@ -1,8 +1,8 @@
 package game;
 
-import aa.Alignment;
-import aa.Cohesion;
+import aa.Flocking;
 import aa.Separation;
+import aa.SpatialGrid;
 import particles.ProjectileManager;
 import physics.Body;
 import processing.core.PApplet;
@@ -20,7 +20,14 @@ import java.util.List;
  *  - criar ondas de inimigos para cada nível (spawnWaveLevel1/2/3)
  *  - configurar comportamentos por grupo (wander, pursuit, flocking)
  *  - atualizar inimigos (aplicar behaviors) e gerir disparos inimigos
- *  - desenhar todos os inimigos ativos
+ *  - desenhar todos os inimigos ativos (interpolados entre o passo anterior e o atual)
+ *
+ * A atualização dos inimigos é feita em duas fases: primeiro todos calculam o steering
+ * a partir das posições do início do passo (nenhum se move ainda), depois todos integram.
+ * Assim o resultado não depende da ordem da lista, e a primeira fase pode correr em
+ * paralelo (parallel stream / ForkJoin) quando há inimigos suficientes (parallelThreshold).
+ *
+ * Cada update é registado como evento JFR (GameEvents.EnemyUpdate).
  *
  * A seleção de inimigos especiais (pursuers/chasers) é feita por índices aleatórios,
  * permitindo variedade entre partidas sem alterar a estrutura das waves.
@@ -28,14 +35,17 @@ import java.util.List;
 
 public class EnemyManager {
     private final List<Enemy> enemies = new ArrayList<>(); //lista de inimigos ativos
+    private final List<SpatialGrid> grids = new ArrayList<>(); //indices de vizinhanca dos grupos da wave atual
 
     private float shootTimer = 0f; //timer do disparo inimigo
     private float shootInterval = 1.2f; //1 tiro a cada ~1.2s
+    private int parallelThreshold = 64; //a partir deste numero de inimigos o steering e calculado em paralelo
 
 
     //método para poder criar o grupo de inimigos (wave) do nivel 1
     public void spawnWaveLevel1(PApplet p, int count) {
         enemies.clear(); //limpa inimigos anteriores
+        grids.clear();
 
         float r = 26f; //raio base/colisao
         float topY = p.height * 0.12f; //zona superior de spawn
@@ -58,6 +68,7 @@ public class EnemyManager {
     //método para criar inimigos do nivel 2
     public void spawnWaveLevel2(PApplet p, int count, Player player) {
         enemies.clear(); //limpa inimigos anteriores
+        grids.clear();
 
         float r = 26f;  //raio base/colisao
         float topY = p.height * 0.12f; //zona superior de spawn
@@ -104,12 +115,13 @@ public class EnemyManager {
         //configurar só os pursuers (pursuit + separation)
         float sepDist = 85f;
         float sepWeight = 1.2f;
+        SpatialGrid enemyGrid = addGrid(enemies, sepDist);
 
         for (int i = 0; i < enemies.size(); i++) {
             if (!chaseSet.contains(i)) continue;
 
             EnemyLevel2 e = (EnemyLevel2) enemies.get(i);
-            e.addBehavior(new Separation(enemies, sepDist, sepWeight)); //evita pursuers colados
+            e.addBehavior(new Separation(enemyGrid, sepDist, sepWeight)); //evita pursuers colados
         }
 
     }
@@ -118,6 +130,7 @@ public class EnemyManager {
     //método para criar inimigos do nivel 3
     public void spawnWaveLevel3(PApplet p, int count, Player player) {
         enemies.clear();
+        grids.clear();
 
         float r = 26f;
         float topY = p.height * 0.12f;
@@ -175,25 +188,35 @@ public class EnemyManager {
         float cohesionW = 0.35f;
         float sepDist = 55f;
         float sepW = 0.85f;
+        SpatialGrid flockGrid = addGrid(flock, neighborRadius); //celula = maior raio de consulta do grupo
 
         for (Enemy e : flock) {
-            e.addBehavior(new Alignment(flock, neighborRadius, alignW));
-            e.addBehavior(new Cohesion(flock, neighborRadius, cohesionW));
-            e.addBehavior(new Separation(flock, sepDist, sepW));
+            //alignment + cohesion + separation numa so passagem pelos vizinhos
+            e.addBehavior(new Flocking(flockGrid, neighborRadius, alignW, cohesionW, sepDist, sepW));
             //Wander já vem do initBehaviors() do EnemyLevel3
         }
 
         //pursuit + sep entre pursuers
         float sepChaserDist = 95f;
         float sepChaserW = 1.6f;
+        SpatialGrid chaserGrid = addGrid(chasers, sepChaserDist);
 
         for (Enemy e : chasers) {
             //separation entre pursuers para não irem colados
-            e.addBehavior(new Separation(chasers, sepChaserDist, sepChaserW));
+            e.addBehavior(new Separation(chaserGrid, sepChaserDist, sepChaserW));
         }
     }
 
+    //regista uma grelha de vizinhanca para um grupo (reconstruida em cada update)
+    private SpatialGrid addGrid(List<? extends Enemy> group, float cellSize) {
+        SpatialGrid grid = new SpatialGrid(group, cellSize);
+        grids.add(grid);
+        return grid;
+    }
+
     public void update(PApplet p, float dt, ProjectileManager proj) {
+        GameEvents.EnemyUpdate ev = GameEvents.EnemyUpdate.start();
+
         shootTimer -= dt;
         if (shootTimer <= 0f && !enemies.isEmpty()) {
 
@@ -207,7 +230,7 @@ public class EnemyManager {
             
             //nivel 3: ataque especial (triplo azul)
             if (shooter instanceof EnemyLevel3 && prob < 0.4f) {
-                int azul = p.color(0, 0, 255);
+                int azul = 0xFF0000FF;
 
                 //3 tiros em leque
                 proj.spawnCustomEnemyShot(origin, new PVector(-100, 300), azul);
@@ -217,7 +240,7 @@ public class EnemyManager {
             //nivel 2: ataque especial (duplo roxo)
             } else if (shooter instanceof EnemyLevel2 && prob < 0.3f) {
                 
-                int roxo = p.color(180, 50, 255);
+                int roxo = 0xFFB432FF;
                 float vel = 320f;
 
                 //tiro 1 -> esquerda
@@ -229,7 +252,7 @@ public class EnemyManager {
                 proj.spawnCustomEnemyShot(origin, vRight, roxo);
             } else {
             	//ataque normal (tiro reto)
-                int encarnado = p.color(255, 0, 0);
+                int encarnado = 0xFFFF0000;
                 PVector vDown = new PVector(0, 320f);
 
                 proj.spawnCustomEnemyShot(origin, vDown, encarnado);
@@ -237,14 +260,48 @@ public class EnemyManager {
             shootTimer = shootInterval;
 
         }
-        for (Enemy e : enemies) {
-            e.applyBehaviors(dt);
+
+        //indices de vizinhanca reconstruidos uma vez por frame, antes dos behaviors
+        for (SpatialGrid grid : grids) {
+            grid.rebuild();
+        }
+
+        //fase 1: steering de todos a partir do mesmo estado (so leituras de pos/vel)
+        boolean parallel = enemies.size() >= parallelThreshold;
+        if (parallel) {
+            enemies.parallelStream().forEach(Enemy::computeSteering);
+        } else {
+            for (int i = 0; i < enemies.size(); i++) {
+                enemies.get(i).computeSteering();
+            }
+        }
+
+        //fase 2: integrar (serie, barato)
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).integrate(dt);
+        }
+
+        ev.finish(enemies.size(), proj.getEnemyShots().size(), proj.getParticleCount(), parallel);
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    //guarda a posicao de todos os inimigos no inicio do passo fixo (desenho interpolado)
+    public void savePrevious() {
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).savePrevious();
         }
     }
 
-    public void display(PApplet p) {
+    public void display(PApplet p, float alpha) {
         for (Enemy e : enemies) {
-            e.display(p);
+            e.display(p, alpha);
         }
     }
 
@@ -1,7 +1,12 @@
 package game;
 
+import java.awt.event.KeyEvent;
+import java.io.PrintWriter;
+
 import processing.core.PApplet;
 import setup.IProcessingApp;
+import tools.FrameProfiler;
+import tools.FrameProfiler.Phase;
 import ui.AssetManager;
 import audio.SoundManager;
 
@@ -21,11 +26,33 @@ import audio.SoundManager;
  *
  * O GameApp atua como ponto central de partilha de recursos comuns,
  * fornecendo acesso às Settings e ao SoundManager.
+ *
+ * Com Settings.threadedSimulation ativo, os estados que o suportam
+ * (GameState.supportsThreadedUpdate) são atualizados numa SimulationThread e
+ * desenhados a partir de snapshots publicados por eles; os restantes estados
+ * continuam a ser atualizados na thread de desenho. As transições de estado e
+ * os updates são serializados por stateLock; o desenho não bloqueia.
+ *
+ * Tudo o que toca no PApplet (assets, cores, som) corre na thread de desenho:
+ * um update que queira mudar de estado usa requestState, e a transição é aplicada
+ * no início do frame seguinte, seguida de GameState.applyDeferred (trabalho que o
+ * próprio estado adiou, como carregar o nível seguinte). A SimulationThread é
+ * parada e esperada em dispose, quando o sketch fecha.
+ *
+ * O update e o display do estado são medidos pelo FrameProfiler (ativo com
+ * Settings.profiling ou enquanto o overlay estiver visível). F3 mostra/esconde o
+ * overlay com o gráfico do tempo de frame, F4 exporta o histórico para CSV e F5
+ * liga/desliga a contagem de bytes alocados por fase (Settings.allocationTracking).
+ * Update, display e transições de estado são também registados como eventos
+ * JFR (GameEvents) para gravações com o Flight Recorder.
  */
 
 public class GameApp implements IProcessingApp {
 
-    private GameState state;
+    private volatile GameState state;
+    private volatile GameState pendingState; //transicao pedida por um update (aplicada na thread de desenho)
+    private final Object stateLock = new Object(); //serializa updates e transicoes entre threads
+    private SimulationThread simulation; //null -> simulacao na thread de desenho
     
     private final Settings settings = new Settings();
     public Settings settings() {return settings;}
@@ -33,31 +60,189 @@ public class GameApp implements IProcessingApp {
     private final SoundManager sound = new SoundManager();
     public SoundManager sound() {return sound;}
 
+    private final FrameProfiler profiler = FrameProfiler.get();
+
     @Override
     public void setup(PApplet p) {
         AssetManager.get().load(p); //carrega recursos globais uma vez
         
         p.getSurface().setSize(settings.width, settings.height); //aplica resolução inicial definido nas settings
         
+        profiler.setAllocationBudget(settings.allocationBudget);
+        profiler.setAllocationTracking(settings.allocationTracking);
+        profiler.setEnabled(settings.profiling || profiler.isAllocationTracking());
+
         setState(new MenuState(this), p); //estado inicial do jogo
+
+        //modo opcional: simulacao numa thread propria
+        if (settings.threadedSimulation) {
+            float rate = (settings.tickRate > 0) ? settings.tickRate : 60f;
+            simulation = new SimulationThread(this, p, rate, settings.maxCatchUpSteps);
+            simulation.start();
+        }
     }
     
    //transicao de estados: limpa estado anterior e inicializa o novo
     public void setState(GameState newState, PApplet p) {
-        if (state != null) state.onExit(p);
-        state = newState;
-        if (state != null) state.onEnter(p);
+        synchronized (stateLock) {
+            GameEvents.StateTransition ev = GameEvents.StateTransition.start();
+            GameState old = state;
+
+            if (state != null) state.onExit(p);
+            state = newState;
+            if (state != null) state.onEnter(p);
+
+            ev.finish(old, newState);
+        }
+    }
+
+    //pede uma transicao a partir de qualquer thread; os updates param ate ser aplicada no proximo frame
+    public void requestState(GameState newState) {
+        pendingState = newState;
+    }
+
+    //thread de desenho, antes do display: transicao pedida e trabalho adiado pelo estado
+    private void applyPending(PApplet p) {
+        GameState next = pendingState;
+        if (next != null) {
+            pendingState = null;
+            setState(next, p);
+        }
+
+        synchronized (stateLock) {
+            if (state != null) state.applyDeferred(p);
+        }
+    }
+
+    //fim do sketch: para a simulacao e espera que a thread termine
+    @Override
+    public void dispose() {
+        SimulationThread sim = simulation;
+        if (sim == null) return;
+
+        simulation = null;
+        sim.shutdown();
+        try {
+            sim.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //indica se os estados que o suportam estao a ser atualizados na SimulationThread
+    public boolean isSimulationThreaded() {
+        return simulation != null;
     }
 
     @Override
     public void draw(PApplet p, float dt) {
         if (state == null) return;
-        state.update(p, dt); //logica do estado
-        state.display(p); //desenho do estado
+        updateOnRenderThread(p, dt); //logica do estado
+        applyPending(p);
+
+        GameState s = state;
+        profiler.begin(Phase.DISPLAY);
+        GameEvents.StateDisplay ev = GameEvents.StateDisplay.start();
+        s.display(p); //desenho do estado
+        ev.finish(s);
+        profiler.end(Phase.DISPLAY);
+
+        endFrame(p);
+    }
+
+    //passo fixo de simulacao (ciclo do ProcessingSetup quando tickRate > 0)
+    @Override
+    public void update(PApplet p, float dt) {
+        updateOnRenderThread(p, dt);
+    }
+
+    //passo chamado pela SimulationThread: so atualiza estados que suportam o modo threaded
+    void simulationStep(PApplet p, float dt) {
+        synchronized (stateLock) {
+            GameState s = state;
+            if (pendingState != null) return; //estado a terminar: espera pela transicao
+            if (s != null && s.supportsThreadedUpdate()) {
+                profiler.begin(Phase.UPDATE);
+                GameEvents.StateUpdate ev = GameEvents.StateUpdate.start();
+                s.update(p, dt);
+                ev.finish(s);
+                profiler.end(Phase.UPDATE);
+            }
+        }
+    }
+
+    //update na thread de desenho, exceto se o estado for atualizado pela SimulationThread
+    private void updateOnRenderThread(PApplet p, float dt) {
+        synchronized (stateLock) {
+            GameState s = state;
+            if (s == null) return;
+            if (simulation != null && s.supportsThreadedUpdate()) return;
+            if (pendingState != null) return; //estado a terminar: espera pela transicao
+
+            profiler.begin(Phase.UPDATE);
+            GameEvents.StateUpdate ev = GameEvents.StateUpdate.start();
+            s.update(p, dt);
+            ev.finish(s);
+            profiler.end(Phase.UPDATE);
+        }
+    }
+
+    @Override
+    public void display(PApplet p, float alpha) {
+        if (state == null) return;
+        applyPending(p);
+
+        GameState s = state;
+        profiler.begin(Phase.DISPLAY);
+        GameEvents.StateDisplay ev = GameEvents.StateDisplay.start();
+        s.display(p, alpha);
+        ev.finish(s);
+        profiler.end(Phase.DISPLAY);
+
+        endFrame(p);
+    }
+
+    //fecha o frame no profiler e desenha o overlay por cima de tudo (fora das medicoes)
+    private void endFrame(PApplet p) {
+        profiler.endFrame();
+        profiler.drawOverlay(p);
+    }
+
+    //escreve o historico do profiler num CSV na pasta do sketch
+    private void exportProfile(PApplet p) {
+        String file = "profile-" + System.currentTimeMillis() + ".csv";
+        PrintWriter out = p.createWriter(file);
+        int frames = profiler.exportCsv(out);
+        out.close();
+        System.out.println("Profile exported: " + file + " (" + frames + " frames)");
+    }
+
+    @Override
+    public float tickRate() {
+        return settings.tickRate;
+    }
+
+    @Override
+    public int maxCatchUpSteps() {
+        return settings.maxCatchUpSteps;
     }
 
     @Override
     public void keyPressed(PApplet p) {
+        //atalhos do profiler (em qualquer estado)
+        if (p.key == PApplet.CODED && p.keyCode == KeyEvent.VK_F3) {
+            profiler.setOverlayVisible(!profiler.isOverlayVisible());
+            profiler.setEnabled(settings.profiling || profiler.isOverlayVisible() || profiler.isAllocationTracking());
+        }
+        if (p.key == PApplet.CODED && p.keyCode == KeyEvent.VK_F5) {
+            boolean tracking = profiler.setAllocationTracking(!profiler.isAllocationTracking());
+            profiler.setEnabled(settings.profiling || profiler.isOverlayVisible() || tracking);
+            System.out.println("Allocation tracking: " + (tracking ? "on" : "off"));
+        }
+        if (p.key == PApplet.CODED && p.keyCode == KeyEvent.VK_F4) {
+            exportProfile(p);
+        }
+
         if (state != null) state.keyPressed(p);
     }
     
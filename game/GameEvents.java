@@ -0,0 +1,196 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos próprios para o Java Flight Recorder (JFR).
+ *
+ * Cada evento marca um intervalo de tempo do ciclo do jogo (update e display do estado,
+ * update dos inimigos, testes de colisão, update do background do nível e transições de
+ * estado) e leva como campos o número de entidades e de partículas nesse momento, para
+ * que numa gravação apareçam ao lado dos dados de GC e de alocação.
+ *
+ * Utilização: ev = X.start() antes do código e ev.finish(...) depois. Os campos só são
+ * preenchidos (e as contagens só são pedidas) quando shouldCommit() é verdadeiro, isto é,
+ * quando há uma gravação ativa com o evento ligado e acima do threshold. Sem gravação,
+ * begin/end/shouldCommit são praticamente gratuitos e o objeto do evento é eliminado pelo JIT.
+ *
+ * Exemplo de gravação:
+ *     java -XX:StartFlightRecording=filename=game.jfr,settings=profile ...
+ * Os eventos aparecem na categoria "Space Invaders" (nomes spaceinvaders.*).
+ */
+
+final class GameEvents {
+
+    private GameEvents() { }
+
+    @Name("spaceinvaders.StateUpdate")
+    @Label("State Update")
+    @Category({"Space Invaders", "Simulation"})
+    @Description("GameState.update (um passo de simulacao)")
+    @StackTrace(false)
+    static final class StateUpdate extends Event {
+        @Label("State") String state;
+        @Label("Entities") int entities;
+        @Label("Particles") int particles;
+
+        static StateUpdate start() {
+            StateUpdate ev = new StateUpdate();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(GameState s) {
+            end();
+            if (!shouldCommit()) { return;}
+            state = s.getClass().getSimpleName();
+            entities = s.entityCount();
+            particles = s.particleCount();
+            commit();
+        }
+    }
+
+    @Name("spaceinvaders.StateDisplay")
+    @Label("State Display")
+    @Category({"Space Invaders", "Render"})
+    @Description("GameState.display (desenho de um frame)")
+    @StackTrace(false)
+    static final class StateDisplay extends Event {
+        @Label("State") String state;
+        @Label("Entities") int entities;
+        @Label("Particles") int particles;
+
+        static StateDisplay start() {
+            StateDisplay ev = new StateDisplay();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(GameState s) {
+            end();
+            if (!shouldCommit()) { return;}
+            state = s.getClass().getSimpleName();
+            entities = s.entityCount();
+            particles = s.particleCount();
+            commit();
+        }
+    }
+
+    @Name("spaceinvaders.EnemyUpdate")
+    @Label("Enemy Update")
+    @Category({"Space Invaders", "Simulation"})
+    @Description("EnemyManager.update (steering, integracao e disparos)")
+    @StackTrace(false)
+    static final class EnemyUpdate extends Event {
+        @Label("Enemies") int enemies;
+        @Label("Enemy Shots") int enemyShots;
+        @Label("Particles") int particles;
+        @Label("Parallel Steering") boolean parallel;
+
+        static EnemyUpdate start() {
+            EnemyUpdate ev = new EnemyUpdate();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(int enemies, int enemyShots, int particles, boolean parallel) {
+            end();
+            if (!shouldCommit()) { return;}
+            this.enemies = enemies;
+            this.enemyShots = enemyShots;
+            this.particles = particles;
+            this.parallel = parallel;
+            commit();
+        }
+    }
+
+    @Name("spaceinvaders.Collision")
+    @Label("Collision Test")
+    @Category({"Space Invaders", "Simulation"})
+    @Description("Teste de colisao do CollisionSystem")
+    @StackTrace(false)
+    static final class Collision extends Event {
+        @Label("Test") String test;
+        @Label("Shots") int shots;
+        @Label("Targets") int targets;
+        @Label("Hits") int hits;
+        @Label("Broad Phase") boolean broadPhase;
+
+        static Collision start() {
+            Collision ev = new Collision();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(String test, int shots, int targets, int hits, boolean broadPhase) {
+            end();
+            if (!shouldCommit()) { return;}
+            this.test = test;
+            this.shots = shots;
+            this.targets = targets;
+            this.hits = hits;
+            this.broadPhase = broadPhase;
+            commit();
+        }
+    }
+
+    @Name("spaceinvaders.LevelUpdate")
+    @Label("Level Background Update")
+    @Category({"Space Invaders", "Simulation"})
+    @Description("Level.update (animacao do background do nivel)")
+    @StackTrace(false)
+    static final class LevelUpdate extends Event {
+        @Label("Level") String level;
+        @Label("Entities") int entities;
+        @Label("Particles") int particles;
+
+        static LevelUpdate start() {
+            LevelUpdate ev = new LevelUpdate();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(Level l) {
+            end();
+            if (!shouldCommit()) { return;}
+            level = l.getClass().getSimpleName();
+            entities = l.entityCount();
+            particles = l.particleCount();
+            commit();
+        }
+    }
+
+    @Name("spaceinvaders.StateTransition")
+    @Label("State Transition")
+    @Category({"Space Invaders", "State"})
+    @Description("GameApp.setState (onExit do estado anterior e onEnter do novo)")
+    static final class StateTransition extends Event {
+        @Label("From") String from;
+        @Label("To") String to;
+        @Label("Entities") int entities;
+        @Label("Particles") int particles;
+
+        static StateTransition start() {
+            StateTransition ev = new StateTransition();
+            ev.begin();
+            return ev;
+        }
+
+        void finish(GameState oldState, GameState newState) {
+            end();
+            if (!shouldCommit()) { return;}
+            from = (oldState != null) ? oldState.getClass().getSimpleName() : "";
+            to = (newState != null) ? newState.getClass().getSimpleName() : "";
+            if (newState != null) {
+                entities = newState.entityCount();
+                particles = newState.particleCount();
+            }
+            commit();
+        }
+    }
+}
@@ -20,7 +20,12 @@ import processing.core.PApplet;
  *  - Reagir aos inputs do utilizador
  * 
  * O GameApp delega todos os eventos e ciclos de atualização
- * ao estado atualmente ativo
+ * ao estado atualmente ativo. Com o ciclo de passo fixo, update recebe sempre
+ * o mesmo dt e pode ser chamado várias (ou zero) vezes entre dois display.
+ *
+ * No modo de simulação em thread separada o update não deve tocar no PApplet
+ * (cores, assets, som) nem mudar de estado diretamente: usa GameApp.requestState
+ * e adia esse trabalho para applyDeferred, que corre na thread de desenho.
  */
 
 public interface GameState {
@@ -30,6 +35,31 @@ public interface GameState {
     void update(PApplet p, float dt);
     void display(PApplet p);
 
+    //chamado na thread de desenho antes de cada display, sem updates a correr ao mesmo tempo
+    //(trabalho pedido pelo update que precisa do PApplet: carregar niveis, musica, ...)
+    default void applyDeferred(PApplet p) {}
+
+    //indica se o estado pode ser atualizado na SimulationThread (desenhando so a partir de snapshots)
+    default boolean supportsThreadedUpdate() {
+        return false;
+    }
+
+    //contagens para os eventos JFR (entidades: inimigos, jogador, projeteis; particulas: fogo e background)
+    //podem ser lidas pela thread de desenho enquanto a simulacao corre: so tamanhos, sem percorrer listas
+    default int entityCount() {
+        return 0;
+    }
+
+    default int particleCount() {
+        return 0;
+    }
+
+    //desenho com interpolacao (alpha em [0, 1) entre o ultimo passo fixo e o proximo)
+    //por omissao desenha o estado do ultimo passo
+    default void display(PApplet p, float alpha) {
+        display(p);
+    }
+
     void keyPressed(PApplet p);
     void mousePressed(PApplet p);
     void mouseReleased(PApplet p);
@@ -28,4 +28,13 @@ public abstract class Level {
 		return false;
 	}
 
+	//contagens do background (para os eventos JFR)
+	public int entityCount() {
+		return 0;
+	}
+
+	public int particleCount() {
+		return 0;
+	}
+
 }
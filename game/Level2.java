@@ -39,6 +39,11 @@ public class Level2 extends Level {
         bg.display(p);
     }
 
+    @Override
+    public int entityCount() {
+        return bg.getBodyCount();
+    }
+
     @Override
     public String music() {
         return "/level2.wav";
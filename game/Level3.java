@@ -38,6 +38,11 @@ public class Level3 extends Level {
         bg.display(p);
     }
 
+    @Override
+    public int particleCount() {
+        return bg.getParticleCount();
+    }
+
     @Override
     public String music() {
     	return "/level3.wav";
@@ -4,6 +4,9 @@ import particles.ProjectileManager;
 import processing.core.PApplet;
 import processing.core.PImage;
 import processing.core.PVector;
+import tools.FrameProfiler;
+import tools.FrameProfiler.Phase;
+import tools.TripleBuffer;
 import ui.AssetManager;
 
 /**
@@ -19,6 +22,22 @@ import ui.AssetManager;
  *
  * A lógica de cada nível é abstraída por Level, permitindo trocar o background
  * e parâmetros de onda sem duplicar o ciclo principal de gameplay.
+ *
+ * Com o ciclo de passo fixo, cada update começa por guardar a posição anterior do
+ * jogador, inimigos e tiros, e o display(p, alpha) desenha-os interpolados entre esse
+ * passo e o atual. O background do nível (puramente visual) é atualizado no display,
+ * ao ritmo do desenho, para não avançar aos saltos.
+ *
+ * Suporta o modo de simulação em thread separada: nesse caso cada update termina
+ * com a publicação de um RenderSnapshot e o display desenha apenas a partir do
+ * snapshot mais recente, interpolado com o tempo decorrido desde a sua publicação.
+ * As transições de nível (assets, cores, música,
+ * criação da onda) e de estado ficam pedidas pelo update e são aplicadas na
+ * thread de desenho (applyDeferred / GameApp.requestState).
+ *
+ * As fases do update (background, projéteis, inimigos, colisões) e cada camada
+ * do desenho são medidas pelo FrameProfiler; o update do background é também
+ * registado como evento JFR (GameEvents.LevelUpdate).
  */
 
 public class PlayState implements GameState {
@@ -29,6 +48,7 @@ public class PlayState implements GameState {
     private int currentLevel;
 
     private EnemyManager enemies;
+    private final BroadPhase broadPhase = new BroadPhase(); //indice de colisoes, reconstruido em cada update
 
     private int lives = 3;  //vidas do player
     private int score = 0; //pontuacao atual
@@ -40,7 +60,7 @@ public class PlayState implements GameState {
     private ProjectileManager projectiles;
     private float shootCooldown = 0.18f;  //cadencia de tiro do jogador
     private float shootTimer = 0f; //timer do cooldown
-    private boolean shootHeld = false;
+    private volatile boolean shootHeld = false; //input (escrito pela thread de desenho)
 
     private float hitCooldown = 0.75f; //invencibilidade curta apos levar hit
     private float hitTimer = 0f;
@@ -52,7 +72,17 @@ public class PlayState implements GameState {
 
     // fade out
     private boolean isFading;
+
+    private volatile int pendingLevel; //nivel a carregar na thread de desenho (0 = nenhum)
     private float fadeAlpha;
+
+    //snapshots para o modo de simulacao em thread separada
+    private final TripleBuffer<RenderSnapshot> snapshots =
+            new TripleBuffer<>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+    private long lastRenderNanos; //para o dt do background na thread de desenho
+    private float lastStep; //dt do ultimo update (duracao do passo no snapshot)
+
+    private final FrameProfiler profiler = FrameProfiler.get();
     
     public PlayState(GameApp app) {
         this.app = app;
@@ -87,6 +117,7 @@ public class PlayState implements GameState {
 
         //spawns iniciais
         enemies = new EnemyManager();
+        enemies.setParallelThreshold(app.settings().parallelBoidThreshold);
         enemies.spawnWaveLevel1(p, 15);
 
         //overlay de introducao do nivel
@@ -96,21 +127,55 @@ public class PlayState implements GameState {
         shootTimer = 0f;
         hitTimer = 0f;
         shootHeld = false;
+        pendingLevel = 0;
+
+        if (app.isSimulationThreaded()) { publishSnapshot(p);} //primeiro frame ja tem o que desenhar
     }
 
     @Override
     public void onExit(PApplet p) {
     }
 
+    @Override
+    public boolean supportsThreadedUpdate() {
+        return true;
+    }
+
+    //so tamanhos de listas e contadores (seguro a partir da thread de desenho)
+    @Override
+    public int entityCount() {
+        if (enemies == null) { return 0;}
+        return enemies.getEnemies().size() + projectiles.getPlayerShots().size() + projectiles.getEnemyShots().size() + 1;
+    }
+
+    @Override
+    public int particleCount() {
+        if (projectiles == null) { return 0;}
+        return projectiles.getParticleCount() + level.particleCount();
+    }
+
     @Override
     public void update(PApplet p, float dt) {
+        lastStep = dt;
+        step(p, dt);
+
+        //modo threaded: publica o estado visivel deste passo para a thread de desenho
+        if (app.isSimulationThreaded()) { publishSnapshot(p);}
+    }
+
+    private void step(PApplet p, float dt) {
+        //posicoes do passo anterior para o desenho interpolado (tambem quando nada se move)
+        player.savePrevious();
+        enemies.savePrevious();
+        projectiles.savePrevious();
+
+        if (pendingLevel != 0) { return;}  //a espera que a thread de desenho carregue o nivel
     	
     	//timer do overlay do nivel (o jogo arranca depois de uma pequena pausa)
         if (levelIntroTimer > 0f) {
             levelIntroTimer -= dt;
         }
 
-        level.update(p, dt); // background continua em animação
         player.update(dt, p); //player pode mexer durante o intro
 
         if (levelIntroTimer > 1.5f) { return;} //bloqueia combate durante a fase inicial do overlay
@@ -129,18 +194,33 @@ public class PlayState implements GameState {
         }
         
         //atualiza projeteis e inimigos
+        profiler.begin(Phase.PROJECTILES);
         projectiles.update(p, dt);
+        profiler.end(Phase.PROJECTILES);
+
+        profiler.begin(Phase.ENEMIES);
         enemies.update(p, dt, projectiles); //inimigos podem disparar
+        profiler.end(Phase.ENEMIES);
+
+        profiler.begin(Phase.COLLISIONS);
+
+        //broad phase construido uma vez, depois de tudo se mover, e usado pelos dois testes
+        broadPhase.build(enemies.getEnemies(), projectiles.getEnemyShots());
 
         //colisão: tiros do player vs inimigos
-        int kills = CollisionSystem.shotsVsEnemies(projectiles.getPlayerShots(), enemies.getEnemies());
+        int kills = CollisionSystem.shotsVsEnemies(projectiles.getPlayerShots(), enemies.getEnemies(), broadPhase, projectiles);
+
+        //colisão: tiros dos inimigos vs player
+        boolean playerHit = hitTimer <= 0f && CollisionSystem.enemyShotsVsPlayer(projectiles.getEnemyShots(), player, broadPhase, projectiles);
+
+        profiler.end(Phase.COLLISIONS);
+
         if (kills > 0) {
             addScore(kills * 10);
             app.settings().lastScore = score;  //guarda valor para menu e options
         }
 
-        //colisão: tiros dos inimigos vs player
-        if (hitTimer <= 0f && CollisionSystem.enemyShotsVsPlayer(projectiles.getEnemyShots(), player)) {
+        if (playerHit) {
             lives--;
             player.flashDamage(); //ativa a animação de damage
             hitTimer = hitCooldown;
@@ -148,7 +228,7 @@ public class PlayState implements GameState {
             //se ficar sem vidas passa para GameOver e guarda-se o score
             if (lives <= 0) {
                 app.settings().lastScore = score;
-                app.setState(new GameOverState(app, score), p);
+                app.requestState(new GameOverState(app, score));
                 return;
             }
         }
@@ -159,34 +239,10 @@ public class PlayState implements GameState {
             currentLevel++; //aumentar nivel
 
             switch (currentLevel) {
-                //transicao para nivel 2
+                //nivel 2 e 3: carregados na thread de desenho (applyDeferred)
                 case 2:
-                    level = new Level2();
-                    level.onEnter(p);
-
-                    levelIntroText = "LEVEL 2";
-                    levelIntroTimer = levelIntroDuration;
-
-                    //musica
-                    app.sound().playMusic(level.music(), app.settings().volume, app.settings().muted);
-
-                    enemies.spawnWaveLevel2(p, 20, player);
-                    projectiles.clear(); //limpa tiros antigos entre niveis
-                    break;
-                    
-                //transicao para nivel 3
                 case 3:
-                    level = new Level3();
-                    level.onEnter(p);
-
-                    levelIntroText = "LEVEL 3";
-                    levelIntroTimer = levelIntroDuration;
-
-                    //musica
-                    app.sound().playMusic(level.music(), app.settings().volume, app.settings().muted);
-
-                    enemies.spawnWaveLevel3(p, 25, player);
-                    projectiles.clear();
+                    pendingLevel = currentLevel;
                     break;
                     
                 //fim do jogo: inicia fade e vai para creditos    
@@ -201,20 +257,144 @@ public class PlayState implements GameState {
             if (fadeAlpha >= 255) {
                 fadeAlpha = 255;
                 app.settings().lastScore = score;
-                app.setState(new Credits(app, score), p);
+                app.requestState(new Credits(app, score));
             }
         }
     }
 
+    //thread de desenho: carrega o nivel pedido pelo update (background, musica e nova onda)
+    @Override
+    public void applyDeferred(PApplet p) {
+        int next = pendingLevel;
+        if (next == 0) { return;}
+
+        switch (next) {
+            //transicao para nivel 2
+            case 2:
+                level = new Level2();
+                level.onEnter(p);
+
+                levelIntroText = "LEVEL 2";
+                levelIntroTimer = levelIntroDuration;
+
+                //musica
+                app.sound().playMusic(level.music(), app.settings().volume, app.settings().muted);
+
+                enemies.spawnWaveLevel2(p, 20, player);
+                projectiles.clear(); //limpa tiros antigos entre niveis
+                break;
+                
+            //transicao para nivel 3
+            case 3:
+                level = new Level3();
+                level.onEnter(p);
+
+                levelIntroText = "LEVEL 3";
+                levelIntroTimer = levelIntroDuration;
+
+                //musica
+                app.sound().playMusic(level.music(), app.settings().volume, app.settings().muted);
+
+                enemies.spawnWaveLevel3(p, 25, player);
+                projectiles.clear();
+                break;
+        }
+        pendingLevel = 0;
+
+        if (app.isSimulationThreaded()) { publishSnapshot(p);} //snapshot ja com o novo nivel
+    }
+
+    //passo variavel: desenha o estado do ultimo update
     @Override
     public void display(PApplet p) {
+        display(p, 1f);
+    }
+
+    @Override
+    public void display(PApplet p, float alpha) {
+        if (app.isSimulationThreaded()) {
+            displaySnapshot(p);
+            return;
+        }
+
+        updateLevel(p, level); //background continua em animacao
     	
     	//ordem de desenho: background -> inimigos -> player -> projeteis -> ui
+        profiler.begin(Phase.DRAW_LEVEL);
         level.display(p);
-        enemies.display(p);
-        player.display(p);
-        projectiles.display(p);
+        profiler.end(Phase.DRAW_LEVEL);
+
+        profiler.begin(Phase.DRAW_ENEMIES);
+        enemies.display(p, alpha);
+        profiler.end(Phase.DRAW_ENEMIES);
 
+        profiler.begin(Phase.DRAW_PLAYER);
+        player.display(p, alpha);
+        profiler.end(Phase.DRAW_PLAYER);
+
+        profiler.begin(Phase.DRAW_PROJECTILES);
+        projectiles.display(p, alpha);
+        profiler.end(Phase.DRAW_PROJECTILES);
+
+        profiler.begin(Phase.DRAW_HUD);
+        drawOverlays(p, levelIntroTimer, levelIntroText, lives, score, isFading, fadeAlpha);
+        profiler.end(Phase.DRAW_HUD);
+    }
+
+    //copia o estado visivel para o snapshot livre e publica-o
+    private void publishSnapshot(PApplet p) {
+        RenderSnapshot snap = snapshots.back();
+
+        snap.captureEnemies(enemies.getEnemies());
+        snap.capturePlayer(player);
+        snap.captureShots(projectiles.getPlayerShots(), projectiles.getEnemyShots(), p.frameCount);
+
+        snap.level = level;
+        snap.lives = lives;
+        snap.score = score;
+        snap.levelIntroTimer = levelIntroTimer;
+        snap.levelIntroText = levelIntroText;
+        snap.fading = isFading;
+        snap.fadeAlpha = fadeAlpha;
+
+        snap.step = lastStep;
+        snap.publishNanos = System.nanoTime();
+        snapshots.publish();
+    }
+
+    //desenho no modo threaded: so le o snapshot mais recente, sem bloquear a simulacao
+    private void displaySnapshot(PApplet p) {
+        RenderSnapshot snap = snapshots.acquire();
+        if (snap.level == null) { return;}  //ainda nao ha nenhum snapshot publicado
+
+        updateLevel(p, snap.level);
+
+        profiler.begin(Phase.DRAW_LEVEL);
+        snap.level.display(p);
+        profiler.end(Phase.DRAW_LEVEL);
+
+        snap.displayEntities(p, snap.alpha(System.nanoTime()));
+
+        profiler.begin(Phase.DRAW_HUD);
+        drawOverlays(p, snap.levelIntroTimer, snap.levelIntroText, snap.lives, snap.score, snap.fading, snap.fadeAlpha);
+        profiler.end(Phase.DRAW_HUD);
+    }
+
+    //background puramente visual, atualizado ao ritmo do desenho (dt real entre frames)
+    private void updateLevel(PApplet p, Level l) {
+        long now = System.nanoTime();
+        float dt = (lastRenderNanos == 0) ? 0f : Math.min((now - lastRenderNanos) / 1e9f, 0.1f);
+        lastRenderNanos = now;
+
+        profiler.begin(Phase.LEVEL_UPDATE);
+        GameEvents.LevelUpdate ev = GameEvents.LevelUpdate.start();
+        l.update(p, dt);
+        ev.finish(l);
+        profiler.end(Phase.LEVEL_UPDATE);
+    }
+
+    //ui por cima do jogo: instrucoes, overlay do nivel, hud e fade
+    private void drawOverlays(PApplet p, float introTimer, String introText, int lives, int score, boolean fading, float fadeAlpha) {
         //instruções
         p.noStroke();
         p.fill(80);
@@ -222,10 +402,10 @@ public class PlayState implements GameState {
         p.textSize(14);
         p.text("LEFT/RIGHT ARROWS to move | SPACE to shoot | M to menu", p.width / 2f, 10);
 
-        drawLevelIntro(p); //overlay do nivel
-        drawHUD(p); //corações
+        drawLevelIntro(p, introTimer, introText); //overlay do nivel
+        drawHUD(p, lives, score); //corações
 
-        if (isFading) {
+        if (fading) {
             p.pushStyle();
             p.noStroke();
             p.fill(0, fadeAlpha);
@@ -235,11 +415,11 @@ public class PlayState implements GameState {
     }
 
     //metodo para desenhar o overlay inicial dos niveis
-    private void drawLevelIntro(PApplet p) {
-        if (levelIntroTimer <= 0f) return;
+    private void drawLevelIntro(PApplet p, float introTimer, String introText) {
+        if (introTimer <= 0f) return;
 
         //tempo t: 0..1 (1 no inicio, 0 no fim)
-        float t = PApplet.constrain(levelIntroTimer / levelIntroDuration, 0f, 1f);
+        float t = PApplet.constrain(introTimer / levelIntroDuration, 0f, 1f);
 
         float fade = (float) Math.pow(t, 2.2);  //fade nao linear para ficar forte no inicio e desaparecer suave no fim
         float a = 255f * fade;
@@ -261,17 +441,17 @@ public class PlayState implements GameState {
         //glow verde
         p.fill(0, 255, 0, a * 0.35f);
         p.textSize(82);
-        p.text(levelIntroText, p.width / 2f, p.height / 2f);
+        p.text(introText, p.width / 2f, p.height / 2f);
 
         //texto principal
         p.fill(200, 255, 200, a);
         p.textSize(72);
-        p.text(levelIntroText, p.width / 2f, p.height / 2f);
+        p.text(introText, p.width / 2f, p.height / 2f);
 
         p.popStyle();
     }
 
-    private void drawHUD(PApplet p) {
+    private void drawHUD(PApplet p, int lives, int score) {
         p.imageMode(PApplet.CORNER);
         p.pushStyle();
 
@@ -25,8 +25,8 @@ public class Player extends Body {
     private float speed = 420f; //velocidade horizontal (px/s)
     private float friction = 10f; //friccao para desacelerar sem input
 
-    private boolean left = false; //input esquerda
-    private boolean right = false; //input direita
+    private volatile boolean left = false; //input esquerda (escrito pela thread de desenho)
+    private volatile boolean right = false; //input direita
     private PImage sprite; //sprite do jogador
     
     //valores para a animação de damage
@@ -89,18 +89,38 @@ public class Player extends Body {
 
     @Override
     public void display(PApplet p) {
+        draw(p, sprite, pos.x, pos.y, radius, tintAlpha(), color);
+    }
+
+    //desenho interpolado entre o passo anterior e o atual
+    @Override
+    public void display(PApplet p, float alpha) {
+        draw(p, sprite, renderX(alpha), renderY(alpha), radius, tintAlpha(), color);
+    }
+
+    //quando leva dano, baixa o alpha do sprite para dar feedback
+    public float tintAlpha() {
+        return (damageFlashTimer > 0f) ? 120f : 255f;
+    }
+
+    public PImage getSprite() {
+        return sprite;
+    }
+
+    //desenha a nave a partir de valores copiados (usado tambem pelos snapshots de render)
+    public static void draw(PApplet p, PImage sprite, float x, float y, float radius, float alpha, int color) {
     	 p.pushStyle();
-    	 
-    	 //quando leva dano, baixa o alpha do sprite para dar feedback
-    	 if (damageFlashTimer > 0f) { p.tint(255, 120);}
-    	 else { p.tint(255, 255);}
+    	 p.tint(255, alpha);
     	
         if (sprite != null) {
             p.imageMode(PApplet.CENTER);
-            p.image(sprite, pos.x, pos.y, radius * 2, radius * 2);
+            p.image(sprite, x, y, radius * 2, radius * 2);
     
         } else {
-            super.display(p);
+            //fallback igual ao Body: circulo simples
+            p.noStroke();
+            p.fill(color);
+            p.circle(x, y, 2 * radius);
         }
         
         p.popStyle();
@@ -0,0 +1,223 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+import aa.Boid;
+import particles.ParticleProjectile;
+import particles.Projectile;
+import physics.ParticleBatch;
+import processing.core.PApplet;
+import processing.core.PImage;
+import tools.FrameProfiler;
+import tools.FrameProfiler.Phase;
+
+/**
+ * Cópia do estado visível do PlayState num passo de simulação.
+ *
+ * Quando a simulação corre numa thread própria, o PlayState preenche um
+ * RenderSnapshot no fim de cada update e publica-o através de um TripleBuffer.
+ * O display da thread de desenho lê apenas o snapshot, nunca as listas de
+ * inimigos e projéteis que a simulação está a alterar.
+ *
+ * Guarda, em arrays primitivos reutilizados entre frames:
+ *  - inimigos (posição atual e do passo anterior, raio, direção, sprite, alpha do tint, cor)
+ *  - jogador
+ *  - projéteis (núcleo) e as suas partículas de fogo
+ *  - instante da publicação e duração do passo (para o alpha da interpolação)
+ *  - valores do HUD e overlays (vidas, score, intro do nível, fade)
+ *
+ * O desenho reutiliza os métodos estáticos das entidades (Enemy.drawSprite,
+ * Player.draw, Projectile.collectCore, ...) e o mesmo ParticleBatch do
+ * ProjectileManager, pelo que o resultado é igual ao do desenho direto, incluindo a
+ * interpolação entre o passo anterior e o atual.
+ */
+
+class RenderSnapshot {
+
+    //inimigos
+    int enemyCount;
+    float[] enemyX = new float[32], enemyY = new float[32], enemyR = new float[32];
+    float[] enemyPrevX = new float[32], enemyPrevY = new float[32];
+    float[] enemyHeading = new float[32], enemyAlpha = new float[32];
+    int[] enemyColor = new int[32];
+    PImage[] enemySprite = new PImage[32];
+
+    //jogador
+    float playerX, playerY, playerPrevX, playerPrevY, playerR, playerAlpha;
+    int playerColor;
+    PImage playerSprite;
+
+    //projeteis: nucleo
+    int shotCount;
+    float[] shotX = new float[64], shotY = new float[64], shotR = new float[64];
+    float[] shotPrevX = new float[64], shotPrevY = new float[64];
+    int[] shotColor = new int[64];
+
+    //particulas de todos os projeteis
+    int particleCount;
+    float[] particleX = new float[1024], particleY = new float[1024];
+    float[] particleSize = new float[1024], particleAlpha = new float[1024];
+    int[] particleColor = new int[1024];
+    int[] particleShot = new int[1024];  //tiro que a particula acompanha no desenho (-1 = nenhum)
+
+    //lote de desenho das particulas (usado so pela thread de desenho)
+    private final ParticleBatch batch = new ParticleBatch();
+
+    //tempo: publicacao (System.nanoTime) e dt do passo que a produziu
+    long publishNanos;
+    float step;
+
+    //hud e overlays
+    Level level;
+    int lives, score;
+    float levelIntroTimer;
+    String levelIntroText;
+    boolean fading;
+    float fadeAlpha;
+
+    void captureEnemies(List<Enemy> enemies) {
+        enemyCount = enemies.size();
+        if (enemyX.length < enemyCount) {
+            int cap = Math.max(enemyCount, enemyX.length * 2);
+            enemyX = new float[cap];
+            enemyY = new float[cap];
+            enemyR = new float[cap];
+            enemyPrevX = new float[cap];
+            enemyPrevY = new float[cap];
+            enemyHeading = new float[cap];
+            enemyAlpha = new float[cap];
+            enemyColor = new int[cap];
+            enemySprite = new PImage[cap];
+        }
+
+        for (int i = 0; i < enemyCount; i++) {
+            Enemy e = enemies.get(i);
+            enemyX[i] = e.getPos().x;
+            enemyY[i] = e.getPos().y;
+            enemyPrevX[i] = e.getPrevX();
+            enemyPrevY[i] = e.getPrevY();
+            enemyR[i] = e.getRadius();
+            enemyHeading[i] = e.getVel().heading();
+            enemyAlpha[i] = e.tintAlpha();
+            enemyColor[i] = e.getColor();
+            enemySprite[i] = e.getSprite();
+        }
+    }
+
+    void capturePlayer(Player player) {
+        playerX = player.getPos().x;
+        playerY = player.getPos().y;
+        playerPrevX = player.getPrevX();
+        playerPrevY = player.getPrevY();
+        playerR = player.getRadius();
+        playerAlpha = player.tintAlpha();
+        playerColor = player.getColor();
+        playerSprite = player.getSprite();
+    }
+
+    //projeteis pela ordem de desenho (tiros do jogador, depois tiros inimigos)
+    void captureShots(List<Projectile> playerShots, List<Projectile> enemyShots, int frameCount) {
+        shotCount = 0;
+        particleCount = 0;
+        addShots(playerShots, frameCount);
+        addShots(enemyShots, frameCount);
+    }
+
+    private void addShots(List<Projectile> shots, int frameCount) {
+        for (int i = 0; i < shots.size(); i++) {
+            Projectile s = shots.get(i);
+            if (shotCount == shotX.length) { growShots();}
+
+            List<ParticleProjectile> parts = s.getParticles();
+            for (int k = 0; k < parts.size(); k++) {
+                ParticleProjectile par = parts.get(k);
+                if (particleCount == particleX.length) { growParticles();}
+
+                particleX[particleCount] = par.getPos().x;
+                particleY[particleCount] = par.getPos().y;
+                particleSize[particleCount] = par.displaySize(frameCount);
+                particleAlpha[particleCount] = par.displayAlpha();
+                particleColor[particleCount] = par.getColor();
+                particleShot[particleCount] = s.spawnedLastStep(k) ? shotCount : -1;
+                particleCount++;
+            }
+
+            shotX[shotCount] = s.getPos().x;
+            shotY[shotCount] = s.getPos().y;
+            shotPrevX[shotCount] = s.getPrevX();
+            shotPrevY[shotCount] = s.getPrevY();
+            shotR[shotCount] = s.getRadius();
+            shotColor[shotCount] = s.getColor();
+            shotCount++;
+        }
+    }
+
+    //fracao do passo seguinte ja decorrida desde a publicacao (o desenho fica um passo atras da simulacao)
+    float alpha(long now) {
+        if (step <= 0) { return 1f;}
+        return PApplet.constrain((now - publishNanos) / (step * 1e9f), 0f, 1f);
+    }
+
+    //ordem de desenho igual ao PlayState: inimigos -> player -> projeteis
+    void displayEntities(PApplet p, float alpha) {
+        FrameProfiler profiler = FrameProfiler.get();
+
+        profiler.begin(Phase.DRAW_ENEMIES);
+        for (int i = 0; i < enemyCount; i++) {
+            float x = PApplet.lerp(enemyPrevX[i], enemyX[i], alpha);
+            float y = PApplet.lerp(enemyPrevY[i], enemyY[i], alpha);
+            if (enemySprite[i] != null) {
+                Enemy.drawSprite(p, enemySprite[i], x, y, enemyR[i], enemyAlpha[i]);
+            } else {
+                Boid.drawShape(p, x, y, enemyHeading[i], enemyR[i], enemyColor[i]);
+            }
+        }
+        profiler.end(Phase.DRAW_ENEMIES);
+
+        profiler.begin(Phase.DRAW_PLAYER);
+        Player.draw(p, playerSprite, PApplet.lerp(playerPrevX, playerX, alpha), PApplet.lerp(playerPrevY, playerY, alpha),
+                playerR, playerAlpha, playerColor);
+        profiler.end(Phase.DRAW_PLAYER);
+
+        //particulas e nucleos em lote, como no ProjectileManager (as particulas novas seguem o nucleo)
+        profiler.begin(Phase.DRAW_PROJECTILES);
+        float back = alpha - 1f;  //desvio do nucleo interpolado em relacao a posicao atual, por unidade de passo
+        for (int k = 0; k < particleCount; k++) {
+            float x = particleX[k], y = particleY[k];
+            int s = particleShot[k];
+            if (s >= 0) {
+                x += (shotX[s] - shotPrevX[s]) * back;
+                y += (shotY[s] - shotPrevY[s]) * back;
+            }
+            batch.add(PApplet.BLEND, x, y, particleSize[k], particleColor[k], particleAlpha[k]);
+        }
+        for (int i = 0; i < shotCount; i++) {
+            float x = PApplet.lerp(shotPrevX[i], shotX[i], alpha);
+            float y = PApplet.lerp(shotPrevY[i], shotY[i], alpha);
+            Projectile.collectCore(batch, x, y, shotR[i], shotColor[i]);
+        }
+        batch.flush(p);
+        profiler.end(Phase.DRAW_PROJECTILES);
+    }
+
+    private void growShots() {
+        int cap = shotX.length * 2;
+        shotX = Arrays.copyOf(shotX, cap);
+        shotY = Arrays.copyOf(shotY, cap);
+        shotR = Arrays.copyOf(shotR, cap);
+        shotPrevX = Arrays.copyOf(shotPrevX, cap);
+        shotPrevY = Arrays.copyOf(shotPrevY, cap);
+        shotColor = Arrays.copyOf(shotColor, cap);
+    }
+
+    private void growParticles() {
+        int cap = particleX.length * 2;
+        particleX = Arrays.copyOf(particleX, cap);
+        particleY = Arrays.copyOf(particleY, cap);
+        particleSize = Arrays.copyOf(particleSize, cap);
+        particleAlpha = Arrays.copyOf(particleAlpha, cap);
+        particleColor = Arrays.copyOf(particleColor, cap);
+        particleShot = Arrays.copyOf(particleShot, cap);
+    }
+}
@@ -9,6 +9,9 @@ package game;
  *  - Dimensões da janela do jogo
  *  - Estado de mute
  *  - Pontuação do jogador
+ *  - Ritmo da simulação (passo fixo)
+ *  - Número de inimigos a partir do qual o steering corre em paralelo
+ *  - Medição do tempo e da alocação de cada fase do frame (FrameProfiler)
  * 
  * Esta classe funciona como um contentor simples de dados,
  * permitindo acesso centralizado e fácil às configurações
@@ -21,4 +24,11 @@ public class Settings {
     public int height = 600;       //altura da janela
     public boolean muted = false;  //se o som está mutado
     public int lastScore = 0;      //score atual/ultimo obtido
+    public float tickRate = 60f;   //passos de simulacao por segundo (0 = passo variavel); o desenho interpola entre passos
+    public int maxCatchUpSteps = 5; //maximo de passos de simulacao por frame
+    public boolean threadedSimulation = false; //simulacao do jogo numa thread separada do desenho
+    public int parallelBoidThreshold = 64; //inimigos a partir dos quais o steering usa varios nucleos
+    public boolean profiling = false; //mede as fases do frame desde o arranque (F3 overlay, F4 exporta CSV)
+    public boolean allocationTracking = false; //bytes alocados por fase (F5), com o profiler ligado
+    public long allocationBudget = 16 * 1024; //bytes/frame por fase acima dos quais a fase e assinalada
 }
@@ -0,0 +1,66 @@
+package game;
+
+import java.util.concurrent.locks.LockSupport;
+
+import processing.core.PApplet;
+
+/**
+ * Thread dedicada à simulação do jogo (modo opcional, ver Settings.threadedSimulation).
+ *
+ * A SimulationThread chama GameApp.simulationStep em passos fixos de 1 / tickRate
+ * segundos, independentemente do ritmo de desenho, para que a simulação (flocking,
+ * projéteis, colisões) corra em paralelo com o render noutro núcleo.
+ *
+ * Tal como no ciclo de passo fixo do ProcessingSetup, o número de passos por ciclo é
+ * limitado (maxCatchUpSteps) e o atraso acima disso é descartado. Entre passos a
+ * thread fica parada (parkNanos) até ao instante do passo seguinte.
+ *
+ * É uma thread daemon; o GameApp pára-a (shutdown) e espera por ela quando o sketch fecha.
+ */
+
+class SimulationThread extends Thread {
+
+    private final GameApp app;
+    private final PApplet p;
+    private final float step;  //dt de cada passo (segundos)
+    private final long stepNanos;
+    private final int maxCatchUpSteps;
+    private volatile boolean running = true;
+
+    SimulationThread(GameApp app, PApplet p, float tickRate, int maxCatchUpSteps) {
+        super("simulation");
+        this.app = app;
+        this.p = p;
+        this.step = 1f / tickRate;
+        this.stepNanos = (long) (1e9 / tickRate);
+        this.maxCatchUpSteps = Math.max(1, maxCatchUpSteps);
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+
+            int steps = 0;
+            while (now - next >= 0 && steps < maxCatchUpSteps) {
+                app.simulationStep(p, step);
+                next += stepNanos;
+                steps++;
+            }
+
+            //demasiado atrasado: descarta o atraso em vez de acumular passos
+            if (now - next >= 0) { next = now + stepNanos;}
+
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    //pede o fim do ciclo e acorda a thread se estiver parada a espera do proximo passo
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+    }
+}
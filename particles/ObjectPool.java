@@ -0,0 +1,87 @@
+package particles;
+
+import java.util.function.Supplier;
+
+/**
+ * Pool de objetos recicláveis com capacidade fixa.
+ *
+ * Um ObjectPool guarda objetos que já não estão em uso para serem reutilizados,
+ * evitando alocar (e mais tarde recolher pelo GC) um objeto novo a cada pedido:
+ *  - acquire() devolve um objeto livre ou, se não houver, cria um novo com a factory
+ *  - release(obj) devolve o objeto ao pool (descartado se o pool já estiver cheio)
+ *
+ * O pool não reinicia o estado dos objetos: quem os obtém é responsável por
+ * reconfigurá-los (ex: Projectile.reset, ParticleProjectile.reset).
+ *
+ * São mantidos contadores para afinação da capacidade:
+ *  - hits: pedidos servidos com um objeto reciclado
+ *  - misses: pedidos que obrigaram a criar um objeto novo
+ *  - highWater: máximo de objetos em uso em simultâneo
+ */
+
+public class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final Object[] free;  //pilha de objetos livres
+    private int freeCount;
+
+    private int inUse;
+    private long hits, misses;
+    private int highWater;
+
+    public ObjectPool(int capacity, Supplier<T> factory) {
+        this.factory = factory;
+        this.free = new Object[capacity];
+    }
+
+    //obter um objeto (reciclado se possivel)
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        T obj;
+        if (freeCount > 0) {
+            obj = (T) free[--freeCount];
+            free[freeCount] = null;
+            hits++;
+        } else {
+            obj = factory.get();
+            misses++;
+        }
+
+        inUse++;
+        if (inUse > highWater) { highWater = inUse;}
+        return obj;
+    }
+
+    //devolver um objeto que deixou de estar em uso
+    public void release(T obj) {
+        if (inUse > 0) { inUse--;}
+        if (freeCount < free.length) {
+            free[freeCount++] = obj;
+        }
+        //pool cheio: o objeto e descartado e fica para o GC
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getHighWater() {
+        return highWater;
+    }
+
+    public int getInUse() {
+        return inUse;
+    }
+
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    public int getCapacity() {
+        return free.length;
+    }
+}
@@ -1,5 +1,6 @@
 package particles;
 
+import physics.ParticleBatch;
 import processing.core.PApplet;
 import processing.core.PVector;
 
@@ -23,6 +24,9 @@ import processing.core.PVector;
  *  - perde opacidade progressivamente
  *  - desaparece quando o tempo de vida termina
  *
+ * As partículas são recicladas através de um ObjectPool: reset reconfigura uma
+ * instância existente sem alocar novos vetores.
+ *
  * Esta classe é puramente visual e não contém lógica de colisão ou gameplay.
  */
 
@@ -35,17 +39,31 @@ public class ParticleProjectile {
     private int color;
 
     public ParticleProjectile(PVector pos, PVector vel, float size, float life, int color) {
-        this.pos = pos.copy();
-        this.vel = vel.copy();
+        this.pos = new PVector();
+        this.vel = new PVector();
+        reset(pos.x, pos.y, vel.x, vel.y, size, life, color);
+    }
+
+    //construtor usado pelo pool: estado definido mais tarde com reset
+    ParticleProjectile() {
+        this.pos = new PVector();
+        this.vel = new PVector();
+    }
+
+    //reconfigura a particula (reutilizacao via pool, copia valores para os vetores existentes)
+    public ParticleProjectile reset(float x, float y, float vx, float vy, float size, float life, int color) {
+        this.pos.set(x, y);
+        this.vel.set(vx, vy);
         this.baseSize = size;
         this.life = life;
         this.maxLife = life;
         this.seed = (float) Math.random() * 1000f;  //seed para flicker visual nao sincronizado
         this.color = color;
+        return this;
     }
 
     public void update(float dt) {
-        pos.add(PVector.mult(vel, dt)); //movimento simples da particula
+        pos.add(vel.x * dt, vel.y * dt); //movimento simples da particula
 
         //dissipacao exponencial da velocidade (fogo/fumo a "morrer")
         vel.mult((float) Math.exp(-3f * dt));
@@ -58,20 +76,49 @@ public class ParticleProjectile {
     }
 
     public void display(PApplet p) {
+        draw(p, pos.x, pos.y, displaySize(p.frameCount), displayAlpha(), color);
+    }
+
+    //junta a particula a um lote (desenhada com as restantes numa so passagem)
+    public void collect(ParticleBatch batch, int frameCount) {
+        batch.add(PApplet.BLEND, pos.x, pos.y, displaySize(frameCount), color, displayAlpha());
+    }
+
+    //idem, deslocada (dx, dy) no desenho
+    public void collect(ParticleBatch batch, int frameCount, float dx, float dy) {
+        batch.add(PApplet.BLEND, pos.x + dx, pos.y + dy, displaySize(frameCount), color, displayAlpha());
+    }
+
+    //tamanho a desenhar num dado frame
+    public float displaySize(int frameCount) {
         float t = PApplet.constrain(life / maxLife, 0, 1); //fator de vida normalizado (1 -> 0)
 
         //flicker sinusoidal para efeito de chama instavel
-        float flicker = 0.75f + 0.25f * (float) Math.sin(seed + p.frameCount * 0.35f);
+        float flicker = 0.75f + 0.25f * (float) Math.sin(seed + frameCount * 0.35f);
 
         //tamanho diminui progressivamente com o tempo de vida
-        float s = baseSize * (0.6f + 0.8f * t) * flicker;
+        return baseSize * (0.6f + 0.8f * t) * flicker;
+    }
 
-        float alpha = 255 * t;  //fade-out progressivo
+    //fade-out progressivo
+    public float displayAlpha() {
+        return 255 * PApplet.constrain(life / maxLife, 0, 1);
+    }
 
+    //desenha uma particula a partir de valores copiados (usado tambem pelos snapshots de render)
+    public static void draw(PApplet p, float x, float y, float size, float alpha, int color) {
         p.pushStyle();
         p.noStroke();
         p.fill(color, alpha);
-        p.circle(pos.x, pos.y, s);
+        p.circle(x, y, size);
         p.popStyle();
     }
+
+    public PVector getPos() {
+        return pos;
+    }
+
+    public int getColor() {
+        return color;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package particles;
 import java.util.ArrayList;
 import java.util.List;
 
+import physics.ParticleBatch;
 import processing.core.PApplet;
 import processing.core.PVector;
 
@@ -20,100 +21,211 @@ import processing.core.PVector;
  *  - partículas de aura e rasto geradas durante o movimento
  *
  * As partículas são atualizadas e removidas automaticamente quando expiram, e a lista é limitada
- * para evitar crescimento excessivo e garantir desempenho estável.
+ * para evitar crescimento excessivo e garantir desempenho estável. Quando o projétil é criado
+ * pelo ProjectileManager, tanto o projétil como as partículas são reciclados através de ObjectPool.
+ *
+ * Para o desenho interpolado entre passos fixos, o projétil guarda a posição do passo
+ * anterior (savePrevious). As partículas nascidas no último passo são desenhadas com o
+ * mesmo desvio do núcleo interpolado (nasceram à volta da posição atual); as mais antigas
+ * ficam onde estão, como efeito no espaço do mundo.
  *
  * Esta classe não resolve colisões: a deteção e aplicação de dano são feitas por sistemas externos.
  */
 
 public class Projectile {
+    private static final int AURA_COUNT = 3;  //particulas por update no glow (mais = mais fogo)
+    private static final int TRAIL_COUNT = 1;  //rasto leve para nao sobrecarregar
+
     private PVector pos;
     private PVector vel;
     private float radius;
     private int damage;
     private int color;
+    private float prevX, prevY;  //posicao no passo anterior (desenho interpolado)
     
     private List<ParticleProjectile> particleProjectiles = new ArrayList<>();
+    private final ObjectPool<ParticleProjectile> particlePool; //pool das particulas de fogo (null -> aloca sempre)
 
     public Projectile(PVector pos, PVector vel, float radius, int damage, int color) {
-        this.pos = pos.copy();
-        this.vel = vel.copy();
+        this(null);
+        reset(pos.x, pos.y, vel.x, vel.y, radius, damage, color);
+    }
+
+    //construtor usado pelo ProjectileManager: projetil reciclavel, estado definido com reset
+    Projectile(ObjectPool<ParticleProjectile> particlePool) {
+        this.pos = new PVector();
+        this.vel = new PVector();
+        this.particlePool = particlePool;
+    }
+
+    //reconfigura o projetil para um novo disparo (reutilizacao via pool)
+    public Projectile reset(float x, float y, float vx, float vy, float radius, int damage, int color) {
+        this.pos.set(x, y);
+        this.vel.set(vx, vy);
+        savePrevious();
         this.radius = radius;
         this.damage = damage;
         this.color = color;
+        releaseParticles(); //particulas do disparo anterior voltam ao pool
+        return this;
+    }
+
+    //devolve todas as particulas ao pool (chamado quando o projetil deixa de estar ativo)
+    public void releaseParticles() {
+        if (particlePool != null) {
+            for (int i = 0; i < particleProjectiles.size(); i++) {
+                particlePool.release(particleProjectiles.get(i));
+            }
+        }
+        particleProjectiles.clear();
     }
     
     public void update(float dt) {
     	
     	//movimento do tiro
-        pos.add(PVector.mult(vel, dt));
+        pos.add(vel.x * dt, vel.y * dt);
         
         //partículas de fogo 
-        int auraCount = 3; //quantidade de particulas por frame no glow (mais = mais fogo)
-        for (int i = 0; i < auraCount; i++) {
+        for (int i = 0; i < AURA_COUNT; i++) {
             float ang = (float)(Math.random() * Math.PI * 2);
             float r = (float)(Math.random() * radius * 1.2f);  //espalha spawn ligeiramente fora do raio para aura parecer viva
 
-            PVector spawn = new PVector(pos.x + (float)Math.cos(ang) * r, pos.y + (float)Math.sin(ang) * r);
+            float sx = pos.x + (float)Math.cos(ang) * r;
+            float sy = pos.y + (float)Math.sin(ang) * r;
 
-            //velocidade pequena aleatória
-            PVector pv = new PVector((float)(Math.random() * 50 - 25), (float)(Math.random() * 50 - 25));
-            pv.mult(0.02f); //escala para manter jitter pequeno (efeito de chama)
+            //velocidade pequena aleatória, escalada para manter jitter pequeno (efeito de chama)
+            float pvx = (float)(Math.random() * 50 - 25) * 0.02f;
+            float pvy = (float)(Math.random() * 50 - 25) * 0.02f;
 
-            particleProjectiles.add(new ParticleProjectile(spawn, pv, radius * 2.2f, 0.18f, this.color));
+            spawnParticle(sx, sy, pvx, pvy, radius * 2.2f, 0.18f);
         }
 
-        //rasto (trail) leve para nao sobrecarregar
-        int trailCount = 1;
-        for (int i = 0; i < trailCount; i++) {
-            PVector spawn = pos.copy();
+        //rasto (trail)
+        for (int i = 0; i < TRAIL_COUNT; i++) {
+            //direção oposta da vel, com offset para tras do projetil (rasto nasce atras do nucleo)
+            float speed = vel.mag();
+            float k = (speed > 0.001f) ? -0.08f * radius / speed : -0.08f * radius;  //evita normalizar vetor quase zero
 
-            //direção oposta da vel
-            PVector back = vel.copy();
-            if (back.mag() > 0.001f){back.normalize();}  //evita normalizar vetor quase zero
-            back.mult(-0.08f * radius);  //offset para tras do projetil (rasto nasce atras do nucleo)
+            float sx = pos.x + vel.x * k;
+            float sy = pos.y + vel.y * k;
 
-            spawn.add(back);
+            //rasto mais lento/suave que a aura
+            float pvx = (float)(Math.random() * 30 - 15) * 0.01f;
+            float pvy = (float)(Math.random() * 80 + 40) * 0.01f;
 
-            PVector pv = new PVector((float)(Math.random() * 30 - 15), (float)(Math.random() * 80 + 40));
-            pv.mult(0.01f);  //rasto mais lento/suave que a aura
-
-            particleProjectiles.add(new ParticleProjectile(spawn, pv, radius * 2.0f, 0.25f, this.color));
+            spawnParticle(sx, sy, pvx, pvy, radius * 2.0f, 0.25f);
         }
         
-        //remove particulas expiradas
+        //remove particulas expiradas (devolvidas ao pool)
         for (int i = particleProjectiles.size() - 1; i >= 0; i--) {
             ParticleProjectile par = particleProjectiles.get(i);
             par.update(dt);
-            if (par.dead()) particleProjectiles.remove(i);
+            if (par.dead()) {
+                particleProjectiles.remove(i);
+                if (particlePool != null) { particlePool.release(par);}
+            }
         }
 
         //limite hard para evitar lista gigante e quedas de fps
         if (particleProjectiles.size() > 120) {
-            particleProjectiles.subList(0, particleProjectiles.size() - 120).clear();
+            List<ParticleProjectile> oldest = particleProjectiles.subList(0, particleProjectiles.size() - 120);
+            if (particlePool != null) {
+                for (int i = 0; i < oldest.size(); i++) { particlePool.release(oldest.get(i));}
+            }
+            oldest.clear();
         }
         
     }
+
+    //obtem uma particula do pool (ou nova, se nao houver pool) e adiciona-a ao projetil
+    private void spawnParticle(float x, float y, float vx, float vy, float size, float life) {
+        ParticleProjectile par = (particlePool != null) ? particlePool.acquire() : new ParticleProjectile();
+        particleProjectiles.add(par.reset(x, y, vx, vy, size, life, this.color));
+    }
     
     public void display(PApplet p) {
     	
     	//particulas primeiro
         for (ParticleProjectile sp : particleProjectiles) sp.display(p);
 
+        drawCore(p, pos.x, pos.y, radius, color);
+    }
+
+    //junta particulas (blend normal) e nucleo (blend aditivo) a um lote
+    public void collect(ParticleBatch batch, int frameCount) {
+        for (int i = 0; i < particleProjectiles.size(); i++) {
+            particleProjectiles.get(i).collect(batch, frameCount);
+        }
+        collectCore(batch, pos.x, pos.y, radius, color);
+    }
+
+    //como collect, mas entre o passo anterior e o atual (alpha em [0, 1])
+    public void collect(ParticleBatch batch, int frameCount, float alpha) {
+        float dx = renderX(alpha) - pos.x;
+        float dy = renderY(alpha) - pos.y;
+        for (int i = 0; i < particleProjectiles.size(); i++) {
+            ParticleProjectile par = particleProjectiles.get(i);
+            if (spawnedLastStep(i)) {
+                par.collect(batch, frameCount, dx, dy);  //acompanha o nucleo interpolado
+            } else {
+                par.collect(batch, frameCount);
+            }
+        }
+        collectCore(batch, pos.x + dx, pos.y + dy, radius, color);
+    }
+
+    //guarda a posicao atual como a do passo anterior (no inicio de cada passo fixo)
+    public void savePrevious() {
+        prevX = pos.x;
+        prevY = pos.y;
+    }
+
+    //posicao a desenhar entre o passo anterior (alpha 0) e o atual (alpha 1)
+    public float renderX(float alpha) {
+        return prevX + (pos.x - prevX) * alpha;
+    }
+
+    public float renderY(float alpha) {
+        return prevY + (pos.y - prevY) * alpha;
+    }
+
+    public float getPrevX() {
+        return prevX;
+    }
+
+    public float getPrevY() {
+        return prevY;
+    }
+
+    //particula de indice i criada no ultimo update (as novas ficam no fim da lista)
+    public boolean spawnedLastStep(int i) {
+        return i >= particleProjectiles.size() - (AURA_COUNT + TRAIL_COUNT);
+    }
+
+    //mesmas camadas de drawCore, em lote
+    public static void collectCore(ParticleBatch batch, float x, float y, float radius, int color) {
+        batch.add(PApplet.ADD, x, y, radius * 10, color, 80);
+        batch.add(PApplet.ADD, x, y, radius * 6, color, 150);
+        batch.add(PApplet.ADD, x, y, radius * 3, 0xFFFFF0C8, 120);  //nucleo (255, 240, 200)
+    }
+
+    //desenha o nucleo e glow a partir de valores copiados (usado tambem pelos snapshots de render)
+    public static void drawCore(PApplet p, float x, float y, float radius, int color) {
         //core glow
         p.pushStyle();
         p.blendMode(PApplet.ADD);  //blend aditivo para glow mais intenso
         p.noStroke();
 
         //camadas de glow
-        p.fill(this.color, 80);
-        p.circle(pos.x, pos.y, radius * 10);
+        p.fill(color, 80);
+        p.circle(x, y, radius * 10);
 
-        p.fill(this.color, 150);
-        p.circle(pos.x, pos.y, radius * 6);
+        p.fill(color, 150);
+        p.circle(x, y, radius * 6);
 
         //nucleo
         p.fill(255, 240, 200, 120);
-        p.circle(pos.x, pos.y, radius * 3);
+        p.circle(x, y, radius * 3);
 
         p.blendMode(PApplet.BLEND);
         p.popStyle();
@@ -128,4 +240,6 @@ public class Projectile {
     public PVector getPos() { return pos; }
     public float getRadius() { return radius; }
     public int getDamage() { return damage; }
+    public int getColor() { return color; }
+    public List<ParticleProjectile> getParticles() { return particleProjectiles; }
 }
@@ -1,5 +1,6 @@
 package particles;
 
+import physics.ParticleBatch;
 import processing.core.PApplet;
 import processing.core.PVector;
 import java.util.ArrayList;
@@ -15,7 +16,12 @@ import java.util.List;
  *  - criar projéteis (jogador e inimigos) com parâmetros definidos (velocidade, dano, raio, cor)
  *  - atualizar movimento e efeitos visuais dos projéteis
  *  - remover automaticamente projéteis que saem do ecrã
- *  - desenhar todos os projéteis ativos
+ *  - desenhar todos os projéteis ativos (interpolados entre o passo anterior e o atual)
+ *
+ * Os projéteis e as respetivas partículas de fogo vêm de pools de capacidade fixa
+ * (ObjectPool): um tiro que sai do ecrã ou acerta num alvo é devolvido ao pool
+ * (recycle) e reutilizado no disparo seguinte. Os contadores dos pools
+ * (hits, misses e high-water mark) estão acessíveis para afinação.
  *
  * Esta classe reduz a duplicação de lógica e evita que a gestão de listas fique espalhada
  * pelo gameplay (ex: Player/PlayState).
@@ -27,6 +33,11 @@ public class ProjectileManager {
 
     private final List<Projectile> playerShots = new ArrayList<>();
     private final List<Projectile> enemyShots = new ArrayList<>();
+    private final ParticleBatch batch = new ParticleBatch();  //desenho de todos os tiros num lote
+
+    //pools de reciclagem (capacidade = maximo de objetos livres guardados)
+    private final ObjectPool<ParticleProjectile> particlePool = new ObjectPool<>(4096, ParticleProjectile::new);
+    private final ObjectPool<Projectile> projectilePool = new ObjectPool<>(256, () -> new Projectile(particlePool));
 
     //player
     private float playerShotSpeed = 650f;
@@ -41,17 +52,15 @@ public class ProjectileManager {
     //tiro simples com parametros para gameplay
     public void spawnPlayerShot(PApplet p, PVector origin) {
         //dispara para cima
-        int color = p.color(255, 165, 0);
-        PVector vel = new PVector(0, -playerShotSpeed);
-        playerShots.add(new Projectile(origin, vel, playerShotRadius, playerShotDamage, color));
+        int color = 0xFFFFA500;  //cores ARGB constantes: p.color nao e seguro fora da thread de desenho
+        playerShots.add(obtain(origin.x, origin.y, 0, -playerShotSpeed, playerShotRadius, playerShotDamage, color));
 
     }
 
     public void spawnEnemyShot(PApplet p, PVector origin) {
         //dispara para baixo
-        int color = p.color(255, 0, 0);
-        PVector vel = new PVector(0, enemyShotSpeed);
-        enemyShots.add(new Projectile(origin, vel, enemyShotRadius, enemyShotDamage, color));
+        int color = 0xFFFF0000;
+        enemyShots.add(obtain(origin.x, origin.y, 0, enemyShotSpeed, enemyShotRadius, enemyShotDamage, color));
     }
       
     public void update(PApplet p, float dt) {
@@ -63,6 +72,7 @@ public class ProjectileManager {
             pr.update(dt);
             if (pr.isOffscreen(p)) {
                 playerShots.remove(i);
+                recycle(pr);
             } //remover particula quando está fora do ecrã
         }
         
@@ -73,22 +83,31 @@ public class ProjectileManager {
             pr.update(dt);
             if (pr.isOffscreen(p)) {
                 enemyShots.remove(i);
+                recycle(pr);
             } //remover particula quando está fora do ecrã
         }     
     }
     
  
-    public void display(PApplet p) {
+    //guarda a posicao de todos os tiros no inicio do passo fixo (desenho interpolado)
+    public void savePrevious() {
+        for (int i = 0; i < playerShots.size(); i++) { playerShots.get(i).savePrevious();}
+        for (int i = 0; i < enemyShots.size(); i++) { enemyShots.get(i).savePrevious();}
+    }
+
+    public void display(PApplet p, float alpha) {
     	
     	//player shots
         for (Projectile pr : playerShots) {
-            pr.display(p);
+            pr.collect(batch, p.frameCount, alpha);
         }
         
         //enemy shots
         for (Projectile pr : enemyShots) {
-            pr.display(p);
-        }     
+            pr.collect(batch, p.frameCount, alpha);
+        }
+
+        batch.flush(p);  //particulas (blend) e depois nucleos (add), numa passagem cada
     }
 
     public List<Projectile> getPlayerShots() {
@@ -100,13 +119,41 @@ public class ProjectileManager {
     }
        
     public void clear() {
+        for (Projectile pr : playerShots) { recycle(pr);}
+        for (Projectile pr : enemyShots) { recycle(pr);}
+
         playerShots.clear();
         enemyShots.clear(); 
     }
 
+    //devolve ao pool um projetil ja removido das listas (e as suas particulas)
+    public void recycle(Projectile pr) {
+        pr.releaseParticles();
+        projectilePool.release(pr);
+    }
+
+    //particulas de fogo ativas (retiradas do pool e ainda nao devolvidas)
+    public int getParticleCount() {
+        return particlePool.getInUse();
+    }
+
+    //estatisticas dos pools (hits, misses, high-water mark)
+    public ObjectPool<Projectile> getProjectilePool() {
+        return projectilePool;
+    }
+
+    public ObjectPool<ParticleProjectile> getParticlePool() {
+        return particlePool;
+    }
+
+    //obtem um projetil do pool ja configurado para o disparo
+    private Projectile obtain(float x, float y, float vx, float vy, float radius, int damage, int color) {
+        return projectilePool.acquire().reset(x, y, vx, vy, radius, damage, color);
+    }
+
 
     //método para escolher direção, velocidade e cor do projetil dos inimigos
     public void spawnCustomEnemyShot(PVector origin, PVector velocity, int color) {
-        enemyShots.add(new Projectile(origin, velocity, enemyShotRadius, enemyShotDamage, color));
+        enemyShots.add(obtain(origin.x, origin.y, velocity.x, velocity.y, enemyShotRadius, enemyShotDamage, color));
     }
 }
\ No newline at end of file
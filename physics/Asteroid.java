@@ -18,7 +18,8 @@ import tools.SubPlot;
  *  - ou como um círculo simples, caso não exista sprite
  *
  * A conversão de coordenadas do espaço lógico para píxeis é realizada
- * com recurso à classe SubPlot.
+ * com recurso à classe SubPlot (por asteroide, ou em lote pelo SolarSystem,
+ * que depois chama display com as coordenadas já em píxeis).
  *
  * Esta classe não contém lógica de colisões, destruição ou gameplay.
  */
@@ -39,14 +40,19 @@ public class Asteroid extends Mover {
         float[] pp = plt.getPixelCoord(pos.x, pos.y);
         float[] r = plt.getDimInPixel(radius, radius);
 
+        display(p, pp[0], pp[1], r[0]);
+    }
+
+    //desenho com posicao e raio ja convertidos para pixeis
+    public void display(PApplet p, float px, float py, float pixelRadius) {
         //desenhar sprite se existir, caso contrario desenhar forma simples
         if (sprite != null) {
             p.imageMode(PApplet.CENTER);
-            p.image(sprite, pp[0], pp[1], 12 * r[0], 12 * r[0]);  //escala visual do sprite
+            p.image(sprite, px, py, 12 * pixelRadius, 12 * pixelRadius);  //escala visual do sprite
         } else {
             p.noStroke();
             p.fill(color);
-            p.circle(pp[0], pp[1], 2 * r[0]);
+            p.circle(px, py, 2 * pixelRadius);
 
         }
 
@@ -0,0 +1,334 @@
+package physics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import processing.core.PVector;
+
+/**
+ * Solver de gravidade mútua pelo método de Barnes–Hut (quadtree).
+ *
+ * Em vez de somar a atração de todos os pares (O(n²)), os corpos são inseridos
+ * numa quadtree em que cada nó guarda a massa total e o centro de massa dos corpos
+ * que contém. Ao calcular a força sobre um corpo, um nó distante é tratado como
+ * um único corpo (no seu centro de massa) quando
+ *
+ *     tamanho do nó / distância < theta   (ângulo de abertura)
+ *
+ * e só é aberto (descendo para os filhos) quando está demasiado perto. Com theta = 0
+ * o resultado é a soma direta; valores típicos entre 0.3 e 0.7 dão erro pequeno com
+ * custo O(n log n) por passo.
+ *
+ * Utilização por passo de simulação:
+ *  - build(corpos): reconstrói a árvore com as posições atuais
+ *  - computeForce(m, out): força gravítica de todos os outros corpos sobre m
+ *
+ * Quando só alguns corpos se moveram desde a última construção (subpassos do
+ * BlockTimestep), update(corpos) não reconstrói: cada corpo que se moveu fica na sua
+ * folha e a massa*posição dos nós acima dela é corrigida (refit, O(profundidade) por
+ * corpo). Os centros de massa ficam exatos; só a geometria dos nós (usada no critério
+ * de abertura) fica ligeiramente desatualizada até à reconstrução seguinte, feita quando
+ * mais de REBUILD_FRACTION dos corpos se moveu ou a lista mudou.
+ *
+ * A árvore é guardada em arrays primitivos (double, por causa das distâncias
+ * astronómicas) reutilizados entre passos. O parâmetro softening evita forças
+ * infinitas entre corpos quase coincidentes.
+ */
+
+public class BarnesHut {
+
+    private static final int MAX_DEPTH = 48;  //abaixo disto corpos coincidentes ficam agregados numa folha
+    private static final int EMPTY = -1;  //folha vazia
+    private static final int AGGREGATE = -2;  //folha com varios corpos (profundidade maxima)
+    private static final float REBUILD_FRACTION = 0.25f;  //fracao de corpos movidos acima da qual update reconstroi
+
+    private final double G;
+    private float theta;  //angulo de abertura
+    private double softeningSq;
+
+    //corpos da ultima construcao (indice -> mover) e posicoes/massas copiadas
+    private Mover[] bodies = new Mover[0];
+    private double[] bx = new double[0], by = new double[0], bm = new double[0];
+    private int[] leafOf = new int[0];  //folha onde cada corpo foi inserido
+    private int[] moved = new int[0];  //corpos movidos desde a ultima atualizacao (update)
+    private int n;
+    private int builds, refits;  //contadores (reconstrucoes completas e corpos corrigidos por refit)
+
+    //nos da arvore (o no 0 e a raiz; os 4 filhos de um no sao consecutivos)
+    private double[] cx = new double[64], cy = new double[64], half = new double[64];
+    private double[] mass = new double[64], mx = new double[64], my = new double[64];  //massa e soma massa*pos
+    private int[] firstChild = new int[64];  //-1 se for folha
+    private int[] body = new int[64];  //folha: indice do corpo, EMPTY ou AGGREGATE
+    private int[] parent = new int[64];  //-1 na raiz
+    private int nodeCount;
+
+    private int[] stack = new int[256];  //pilha da travessia (sem recursao)
+
+    public BarnesHut(double G, float theta, float softening) {
+        this.G = G;
+        this.theta = theta;
+        this.softeningSq = (double) softening * softening;
+    }
+
+    //reconstroi a arvore com as posicoes atuais dos corpos
+    public void build(List<? extends Mover> list) {
+        n = list.size();
+        if (bodies.length < n) {
+            bodies = new Mover[n];
+            bx = new double[n];
+            by = new double[n];
+            bm = new double[n];
+            leafOf = new int[n];
+            moved = new int[n];
+        }
+
+        //caixa envolvente (quadrada) de todos os corpos
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Mover m = list.get(i);
+            bodies[i] = m;
+            bx[i] = m.getPos().x;
+            by[i] = m.getPos().y;
+            bm[i] = m.getMass();
+            minX = Math.min(minX, bx[i]);
+            maxX = Math.max(maxX, bx[i]);
+            minY = Math.min(minY, by[i]);
+            maxY = Math.max(maxY, by[i]);
+        }
+        Arrays.fill(bodies, n, bodies.length, null);
+
+        builds++;
+        nodeCount = 0;
+        if (n == 0) { return;}
+
+        double h = Math.max(maxX - minX, maxY - minY) / 2 * 1.0001 + 1;  //margem para os corpos na fronteira
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, h, -1);
+
+        for (int i = 0; i < n; i++) {
+            insert(i);
+        }
+    }
+
+    //poe a arvore em dia com as posicoes atuais: refit se poucos corpos se moveram, senao build
+    public void update(List<? extends Mover> list) {
+        if (list.size() != n || nodeCount == 0) {
+            build(list);
+            return;
+        }
+
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            Mover m = list.get(i);
+            if (m != bodies[i] || m.getMass() != bm[i]) {  //lista ou massas diferentes: reconstroi
+                build(list);
+                return;
+            }
+            if (m.getPos().x != bx[i] || m.getPos().y != by[i]) { moved[count++] = i;}
+        }
+
+        if (count > n * REBUILD_FRACTION) {
+            build(list);
+            return;
+        }
+
+        for (int k = 0; k < count; k++) {
+            refit(moved[k]);
+        }
+        refits += count;
+    }
+
+    //forca gravitica sobre m exercida por todos os outros corpos da arvore (escrita em out)
+    public PVector computeForce(Mover m, PVector out) {
+        double x = m.getPos().x, y = m.getPos().y;
+        double ax = 0, ay = 0;  //aceleracao (G * massa / d^2)
+        double thetaSq = (double) theta * theta;
+
+        int top = 0;
+        if (nodeCount > 0) { stack[top++] = 0;}
+
+        while (top > 0) {
+            int node = stack[--top];
+            if (mass[node] == 0) { continue;}
+
+            double nodeMass = mass[node];
+            double comX = mx[node] / nodeMass;
+            double comY = my[node] / nodeMass;
+
+            if (firstChild[node] < 0) {
+                //folha: ignora o proprio corpo
+                int b = body[node];
+                if (b >= 0 && bodies[b] == m) { continue;}
+
+                //folha agregada que contem o corpo: retira a sua contribuicao
+                if (b == AGGREGATE && Math.abs(x - cx[node]) <= half[node] && Math.abs(y - cy[node]) <= half[node]) {
+                    double mSelf = m.getMass();
+                    nodeMass -= mSelf;
+                    if (nodeMass <= 0) { continue;}
+                    comX = (mx[node] - mSelf * x) / nodeMass;
+                    comY = (my[node] - mSelf * y) / nodeMass;
+                }
+            } else {
+                double dx = comX - x, dy = comY - y;
+                double size = 2 * half[node];
+
+                //no demasiado perto para ser aproximado: abre os filhos
+                if (size * size >= thetaSq * (dx * dx + dy * dy)) {
+                    if (top + 4 > stack.length) { stack = Arrays.copyOf(stack, stack.length * 2);}
+                    int c = firstChild[node];
+                    stack[top++] = c;
+                    stack[top++] = c + 1;
+                    stack[top++] = c + 2;
+                    stack[top++] = c + 3;
+                    continue;
+                }
+            }
+
+            //atracao pelo centro de massa do no (com softening)
+            double dx = comX - x, dy = comY - y;
+            double d2 = dx * dx + dy * dy + softeningSq;
+            if (d2 == 0) { continue;}
+            double inv = 1 / Math.sqrt(d2);
+            double a = G * nodeMass * inv * inv * inv;
+            ax += a * dx;
+            ay += a * dy;
+        }
+
+        //forca = massa * aceleracao
+        return out.set((float) (ax * m.getMass()), (float) (ay * m.getMass()));
+    }
+
+    public float getTheta() {
+        return theta;
+    }
+
+    public void setTheta(float theta) {
+        this.theta = theta;
+    }
+
+    public void setSoftening(float softening) {
+        this.softeningSq = (double) softening * softening;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    //reconstrucoes completas desde o arranque (build, direto ou via update)
+    public int getBuilds() {
+        return builds;
+    }
+
+    //corpos corrigidos por refit desde o arranque
+    public int getRefits() {
+        return refits;
+    }
+
+    //corpo i mudou de posicao: o corpo fica na sua folha, corrige massa*posicao ate a raiz
+    private void refit(int i) {
+        Mover m = bodies[i];
+        double x = m.getPos().x, y = m.getPos().y;
+        double dmx = bm[i] * (x - bx[i]);
+        double dmy = bm[i] * (y - by[i]);
+        bx[i] = x;
+        by[i] = y;
+
+        for (int node = leafOf[i]; node >= 0; node = parent[node]) {
+            mx[node] += dmx;
+            my[node] += dmy;
+        }
+    }
+
+    //insere o corpo i descendo a partir da raiz
+    private void insert(int i) {
+        int node = 0;
+        int depth = 0;
+
+        while (true) {
+            addMass(node, i);
+
+            if (firstChild[node] >= 0) {  //no interno: desce para o quadrante
+                node = childFor(node, bx[i], by[i]);
+                depth++;
+                continue;
+            }
+
+            if (body[node] == EMPTY) {  //folha vazia
+                body[node] = i;
+                leafOf[i] = node;
+                return;
+            }
+
+            if (depth >= MAX_DEPTH || body[node] == AGGREGATE) {  //corpos (quase) coincidentes
+                body[node] = AGGREGATE;
+                leafOf[i] = node;
+                return;
+            }
+
+            //folha ocupada: subdivide e empurra o corpo antigo para o filho respetivo
+            int old = body[node];
+            body[node] = EMPTY;
+            subdivide(node);
+
+            int c = childFor(node, bx[old], by[old]);
+            body[c] = old;
+            leafOf[old] = c;
+            addMass(c, old);
+
+            node = childFor(node, bx[i], by[i]);
+            depth++;
+        }
+    }
+
+    private void addMass(int node, int i) {
+        mass[node] += bm[i];
+        mx[node] += bm[i] * bx[i];
+        my[node] += bm[i] * by[i];
+    }
+
+    //filhos por ordem: (-,-), (+,-), (-,+), (+,+)
+    private int childFor(int node, double x, double y) {
+        int q = (x >= cx[node] ? 1 : 0) + (y >= cy[node] ? 2 : 0);
+        return firstChild[node] + q;
+    }
+
+    private void subdivide(int node) {
+        double h = half[node] / 2;
+        double x = cx[node], y = cy[node];
+
+        int c = newNode(x - h, y - h, h, node);
+        newNode(x + h, y - h, h, node);
+        newNode(x - h, y + h, h, node);
+        newNode(x + h, y + h, h, node);
+        firstChild[node] = c;
+    }
+
+    private int newNode(double x, double y, double h, int up) {
+        if (nodeCount == cx.length) { grow();}
+
+        int k = nodeCount++;
+        cx[k] = x;
+        cy[k] = y;
+        half[k] = h;
+        mass[k] = 0;
+        mx[k] = 0;
+        my[k] = 0;
+        firstChild[k] = -1;
+        body[k] = EMPTY;
+        parent[k] = up;
+        return k;
+    }
+
+    private void grow() {
+        int cap = cx.length * 2;
+        cx = Arrays.copyOf(cx, cap);
+        cy = Arrays.copyOf(cy, cap);
+        half = Arrays.copyOf(half, cap);
+        mass = Arrays.copyOf(mass, cap);
+        mx = Arrays.copyOf(mx, cap);
+        my = Arrays.copyOf(my, cap);
+        firstChild = Arrays.copyOf(firstChild, cap);
+        body = Arrays.copyOf(body, cap);
+        parent = Arrays.copyOf(parent, cap);
+    }
+}
@@ -0,0 +1,189 @@
+package physics;
+
+import java.util.List;
+
+/**
+ * Escalonador de passos por blocos (block timestepping) para corpos em órbita.
+ *
+ * Em vez de avançar todos os corpos com o mesmo passo, cada corpo recebe, no início
+ * de cada frame, um nível k e avança com o subpasso dt / 2^k:
+ *  - o passo "natural" de um corpo é eta * |v| / |a| (fração do tempo orbital)
+ *  - k é o menor nível cujo subpasso não excede esse valor (limitado a maxLevel)
+ *
+ * Assim Mercúrio dá muitos subpassos por frame e Neptuno ou os asteroides exteriores
+ * dão só um, reduzindo muito o número total de integrações em sistemas largos.
+ *
+ * Os subpassos são potências de dois do passo do frame, pelo que todos os corpos
+ * voltam a estar sincronizados no fim do frame. Dentro do frame os corpos ativos
+ * em cada "tick" do nível mais fino avançam por ordem de tempo, com leapfrog
+ * kick-drift-kick (a aceleração do fim de um subpasso é reutilizada no seguinte).
+ *
+ * A força sobre um corpo é dada por um BodyForce, que a acumula com applyForce. Em cada
+ * tick todos os corpos ativos fazem primeiro kick + drift; depois BodyForce.prepare é
+ * chamado (por exemplo para atualizar uma árvore de Barnes–Hut com as posições novas)
+ * e só então as forças são avaliadas, para nenhum corpo ver posições desatualizadas.
+ *
+ * A aceleração do último subpasso de cada corpo é guardada entre frames (todos acabam
+ * o frame sincronizados, nas mesmas posições), pelo que cada corpo de nível k custa
+ * exatamente 2^k avaliações por frame. A avaliação inicial de todos os corpos só é
+ * repetida quando a lista de corpos ou o BodyForce mudam, ou depois de invalidate()
+ * (posições alteradas fora do step, por exemplo pelo modo efeméride).
+ */
+
+public class BlockTimestep {
+
+    //forca sobre um unico corpo, com as posicoes atuais (acumulada via applyForce)
+    @FunctionalInterface
+    public interface BodyForce {
+        void applyTo(Mover m);
+
+        //chamado antes de cada ronda de avaliacoes, com as posicoes ja atualizadas
+        default void prepare() {}
+    }
+
+    private float eta;  //fracao do tempo orbital por subpasso
+    private int maxLevel;  //subpasso minimo = dt / 2^maxLevel
+
+    private int[] level = new int[0];
+    private float[] ax = new float[0], ay = new float[0];  //aceleracao no inicio do subpasso
+    private int lastIntegrations;  //subpassos efetuados no ultimo frame
+    private int lastEvaluations;  //avaliacoes de forca no ultimo frame
+
+    //aceleracoes guardadas validas para esta lista e este BodyForce
+    private List<? extends Mover> cachedBodies;
+    private BodyForce cachedForce;
+    private int cachedCount;
+
+    public BlockTimestep(float eta, int maxLevel) {
+        this.eta = eta;
+        this.maxLevel = Math.min(maxLevel, 30);
+    }
+
+    //avanca todos os corpos um frame de duracao dt
+    public void step(List<? extends Mover> bodies, BodyForce force, float dt) {
+        int n = bodies.size();
+        if (level.length < n) {
+            level = new int[n];
+            ax = new float[n];
+            ay = new float[n];
+        }
+
+        //aceleracao inicial: a do fim do frame anterior, exceto se a lista, a forca ou as posicoes mudaram
+        int evaluations = 0;
+        if (bodies != cachedBodies || force != cachedForce || n != cachedCount) {
+            force.prepare();
+            for (int i = 0; i < n; i++) {
+                evaluate(bodies.get(i), force, i);
+            }
+            evaluations += n;
+        }
+
+        //nivel de cada corpo
+        int finest = 0;
+        for (int i = 0; i < n; i++) {
+            level[i] = chooseLevel(bodies.get(i), i, dt);
+            if (level[i] > finest) { finest = level[i];}
+        }
+
+        //ticks do nivel mais fino; um corpo de nivel k esta ativo a cada 2^(finest-k) ticks
+        int ticks = 1 << finest;
+        int integrations = 0;
+        for (int t = 0; t < ticks; t++) {
+            //kick-drift de todos os corpos ativos neste tick
+            for (int i = 0; i < n; i++) {
+                if (!isActive(i, t, finest)) { continue;}
+
+                float h = dt / (1 << level[i]);
+                Mover m = bodies.get(i);
+                m.vel.x += ax[i] * h / 2;
+                m.vel.y += ay[i] * h / 2;
+                m.drift(h);
+            }
+
+            //forcas com as posicoes novas de todos os corpos deste tick, depois o segundo kick
+            force.prepare();
+            for (int i = 0; i < n; i++) {
+                if (!isActive(i, t, finest)) { continue;}
+
+                float h = dt / (1 << level[i]);
+                Mover m = bodies.get(i);
+                evaluate(m, force, i);
+                m.vel.x += ax[i] * h / 2;
+                m.vel.y += ay[i] * h / 2;
+
+                integrations++;
+            }
+        }
+        lastIntegrations = integrations;
+        lastEvaluations = evaluations + integrations;
+
+        cachedBodies = bodies;
+        cachedForce = force;
+        cachedCount = n;
+
+        for (int i = 0; i < n; i++) {
+            bodies.get(i).afterMove();
+        }
+    }
+
+    //corpo de nivel k esta ativo a cada 2^(finest-k) ticks
+    private boolean isActive(int i, int tick, int finest) {
+        int stride = 1 << (finest - level[i]);
+        return tick % stride == 0;
+    }
+
+    //aceleracao do corpo i na posicao atual (o acc do mover e usado so como acumulador)
+    private void evaluate(Mover m, BodyForce force, int i) {
+        m.acc.set(0, 0, 0);
+        force.applyTo(m);
+        ax[i] = m.acc.x;
+        ay[i] = m.acc.y;
+        m.acc.set(0, 0, 0);
+    }
+
+    //menor k com dt / 2^k <= eta * |v| / |a|
+    private int chooseLevel(Mover m, int i, float dt) {
+        double a = Math.sqrt((double) ax[i] * ax[i] + (double) ay[i] * ay[i]);
+        double v = Math.sqrt((double) m.vel.x * m.vel.x + (double) m.vel.y * m.vel.y);
+        if (a == 0 || v == 0) { return 0;}
+
+        double ideal = eta * v / a;
+        int k = 0;
+        while (k < maxLevel && dt / (double) (1 << k) > ideal) { k++;}
+        return k;
+    }
+
+    public int getLevel(int i) {
+        return level[i];
+    }
+
+    //descarta as aceleracoes guardadas (corpos movidos fora do step)
+    public void invalidate() {
+        cachedBodies = null;
+        cachedForce = null;
+    }
+
+    public int getLastIntegrations() {
+        return lastIntegrations;
+    }
+
+    public int getLastEvaluations() {
+        return lastEvaluations;
+    }
+
+    public float getEta() {
+        return eta;
+    }
+
+    public void setEta(float eta) {
+        this.eta = eta;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public void setMaxLevel(int maxLevel) {
+        this.maxLevel = Math.min(maxLevel, 30);
+    }
+}
@@ -38,6 +38,10 @@ public class Body extends Mover {
         this.type = type;
     }
 
+    public int getColor() {
+        return color;
+    }
+
     public void display(PApplet p){
         p.pushStyle();
         
@@ -48,4 +52,14 @@ public class Body extends Mover {
 
         p.popStyle();
 
-    }}
+    }
+
+    //desenho interpolado entre o passo anterior e o atual (alpha em [0, 1])
+    public void display(PApplet p, float alpha) {
+        p.pushStyle();
+        p.noStroke();
+        p.fill(color);
+        p.circle(renderX(alpha), renderY(alpha), 2 * radius);
+        p.popStyle();
+    }
+}
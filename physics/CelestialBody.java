@@ -5,9 +5,6 @@ import processing.core.PImage;
 import processing.core.PVector;
 import tools.SubPlot;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Classe que representa um corpo celeste com interação gravitacional e rasto de movimento.
  *
@@ -17,8 +14,11 @@ import java.util.List;
  *  - um rasto (trail) com as posições recentes para visualização do movimento
  *  - desenho com sprite opcional ou fallback para um círculo
  *
- * O rasto é atualizado a cada chamada de "move(float)" e limitado por trailSize
- * para evitar crescimento infinito de memória.
+ * O rasto é atualizado no fim de cada passo (move ou Integrator.step) e guardado num
+ * buffer circular de floats com capacidade fixa (trailSize): o ponto mais antigo é
+ * simplesmente reescrito, sem deslocar elementos nem criar objetos. Pontos mais próximos
+ * do anterior do que trailMinSpacing (por omissão ~1 píxel, definido por quem desenha)
+ * não são guardados, para que rastos lentos não gastem a capacidade em pontos repetidos.
  *
  * A constante G e a escala do sistema podem ser ajustadas ao contexto do jogo,
  * não tendo de corresponder a valores físicos reais.
@@ -29,29 +29,46 @@ public class CelestialBody extends Mover {
 	private int color;
 	private PImage sprite;
 	private static double G = 6.67e-11; //constante base, ajustada a escala do jogo
-	private List<PVector> trail;
 	private int trailSize = (int) 1e2;  //numero maximo de pontos no rasto
 
+	//rasto em buffer circular (coordenadas do mundo)
+	private final float[] trailX = new float[trailSize];
+	private final float[] trailY = new float[trailSize];
+	private int trailHead;  //posicao do proximo ponto a escrever
+	private int trailCount;
+	private float trailMinSpacingSq;  //distancia minima (ao quadrado) entre pontos guardados
+
+	//buffers de desenho do proprio corpo (reutilizados entre frames)
+	private float[] drawX = new float[0], drawY = new float[0];
+	private final float[] pix = new float[2], dim = new float[2];
+
 	protected CelestialBody(PVector pos, PVector vel, float mass, float radius, int color, PImage sprite) {
 		super(pos, vel, mass, radius);
 		this.color = color;
 		this.sprite = sprite;
-		this.trail = new ArrayList<>();
 	}
 
-	//atualizar o rasto ao mover
+	//atualizar o rasto no fim de cada passo
 	@Override
-	public void move(float dt) {
-		super.move(dt); //atualizar fisica base
+	protected void afterMove() {
+		//ignora pontos demasiado perto do ultimo guardado
+		if (trailCount > 0) {
+			int last = (trailHead + trailSize - 1) % trailSize;
+			float dx = pos.x - trailX[last];
+			float dy = pos.y - trailY[last];
+			if (dx * dx + dy * dy < trailMinSpacingSq) { return;}
+		}
 
-		//adicionar posição atual ao rasto
-		trail.add(pos.copy());
+		//escreve por cima do ponto mais antigo quando o buffer esta cheio
+		trailX[trailHead] = pos.x;
+		trailY[trailHead] = pos.y;
+		trailHead = (trailHead + 1) % trailSize;
+		if (trailCount < trailSize) { trailCount++;}
+	}
 
-		//remover pontos antigos quando excede limite
-		//limita o tamanho do rasto para evitar crescimento infinito
-		if (trail.size() > trailSize) {
-			trail.remove(0);
-		}
+	//distancia minima (no mundo) entre pontos do rasto, tipicamente 1 pixel
+	public void setTrailMinSpacing(float worldDistance) {
+		trailMinSpacingSq = worldDistance * worldDistance;
 	}
 
 	//força de atração gravitica entre este corpo e outro
@@ -72,17 +89,31 @@ public class CelestialBody extends Mover {
 		p.stroke(color, 150);  //cor do planeta, transparência
 		p.strokeWeight(1);
 		p.beginShape();
-		
-		for (PVector v : trail) {
-			float[] pp = plt.getPixelCoord(v.x, v.y); //converter coords mundo -> pixeis
-			p.vertex(pp[0], pp[1]);
+
+		//copia o rasto por ordem (mais antigo primeiro) + posicao atual e converte tudo numa passagem
+		if (drawX.length < trailSize + 1) {
+			drawX = new float[trailSize + 1];
+			drawY = new float[trailSize + 1];
 		}
-		
+		int start = (trailHead + trailSize - trailCount) % trailSize;  //ponto mais antigo
+		for (int k = 0, i = start; k < trailCount; k++, i = (i + 1) % trailSize) {
+			drawX[k] = trailX[i];
+			drawY[k] = trailY[i];
+		}
+		drawX[trailCount] = pos.x;  //liga o rasto ao corpo
+		drawY[trailCount] = pos.y;
+		int count = trailCount > 0 ? trailCount + 1 : 0;
+		plt.toPixel(drawX, drawY, 0, count);
+
+		for (int k = 0; k < count; k++) {
+			p.vertex(drawX[k], drawY[k]);
+		}
+
 		p.endShape();
 
 		//desenhar o corpo principal
-		float[] pp = plt.getPixelCoord(pos.x, pos.y);
-		float[] r = plt.getDimInPixel(radius, radius);
+		float[] pp = plt.getPixelCoord(pos.x, pos.y, pix);
+		float[] r = plt.getDimInPixel(radius, radius, dim);
 
 		if (sprite != null) {
 			p.imageMode(PApplet.CENTER);
@@ -2,13 +2,17 @@ package physics;
 
 import processing.core.PApplet;
 import processing.core.PConstants;
+import processing.core.PGraphics;
 import processing.core.PVector;
 import processing.core.PImage;
 
 import fractals.Fractals;
 import fractals.LSystem;
 import fractals.Turtle;
+import fractals.TurtleGeometry;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 import ui.AssetManager;
@@ -21,9 +25,15 @@ import ui.AssetManager;
  *  - Terra fixa no espaço, com rotação própria e efeito de "glow"
  *  - Lua a orbitar a Terra através de uma simulação física simplificada (gravidade ficticia)
  *  - Árvores fractais (L-Systems) colocadas na superfície da Terra, a rodar com o planeta
+ *    (cada tipo de árvore é compilado uma vez para TurtleGeometry e desenhado numa só chamada)
+ *
+ * A Terra e as árvores só rodam em conjunto, por isso são desenhadas uma vez numa camada
+ * offscreen (PGraphics) e cada frame faz apenas um image() com a rotação earthSpin.
+ * A camada é reconstruída só quando os parâmetros das árvores mudam (regenerateTrees).
  *
  * A órbita da Lua é calculada por uma força gravitacional fictícia (constante G ajustada à escala do jogo),
- * integrando o movimento com um passo de simulação escalado por timeScale.
+ * integrando o movimento com um passo de simulação escalado por timeScale
+ * e um Integrator selecionável (por omissão leapfrog, que mantém a órbita estável).
  * Para estabilidade, dt é limitado para evitar picos quando há lag.
  *
  * Esta classe é puramente visual (background): não contém lógica de gameplay,
@@ -41,6 +51,9 @@ public class EarthMoon {
     //corpos fisicos
     private Mover earth;  //fixo
     private Mover moon;   //orbita com gravidade
+    private List<Mover> moving;  //corpos integrados (so a lua)
+    private Integrator integrator = Integrator.LEAPFROG;
+    private final ForceModel gravity = this::applyGravity;
     
     //tamanhos (px)
     private float earthR = 95f;
@@ -61,6 +74,7 @@ public class EarthMoon {
     //fractais
     private LSystem[] treeSystems;
     private Turtle[] treeTurtles;
+    private TurtleGeometry[] treeGeometry;  //segmentos de cada tipo, compilados no onEnter
 
     private final ArrayList<Float> treeAngles = new ArrayList<>();
     private final ArrayList<Integer> treeColors = new ArrayList<>();
@@ -69,6 +83,10 @@ public class EarthMoon {
     
     private final Random rng = new Random();
 
+    //camada em cache com a terra e as arvores (centro da terra no centro da imagem)
+    private PGraphics earthLayer;
+    private boolean earthLayerDirty = true;
+
     public EarthMoon() {}
 
     public void onEnter(PApplet p) {
@@ -92,6 +110,7 @@ public class EarthMoon {
         PVector moonVel = new PVector(0, -v);
 
         moon = new SimpleMover(moonPos, moonVel, moonMass, moonR);
+        moving = Collections.singletonList(moon);
         
         earthSpin = 0f;
         
@@ -110,12 +129,22 @@ public class EarthMoon {
             Fractals.turtleTree4()
         };
 
+        treeGeometry = new TurtleGeometry[treeSystems.length];
+        for (int i = 0; i < treeSystems.length; i++) {
+            treeGeometry[i] = treeTurtles[i].compile(treeSystems[i]);
+        }
+
+        regenerateTrees(p, 12); //número de árvores
+        rebuildEarthLayer(p);  //camada pronta antes do primeiro frame
+    }
+
+    //nova distribuicao aleatoria de arvores (a camada em cache e refeita no proximo display)
+    public void regenerateTrees(PApplet p, int treeCount) {
         treeAngles.clear();
         treeColors.clear();
         treeTypes.clear();
         treeScales.clear();
 
-        int treeCount = 12; //número de árvores
         for (int i = 0; i < treeCount; i++) {
 
             float theta = (float)(i * (PApplet.TWO_PI / treeCount) + rng.nextGaussian() * 0.06);
@@ -146,7 +175,8 @@ public class EarthMoon {
             }
             treeColors.add(col);
         }
-        
+
+        earthLayerDirty = true;
     }
 
     public void update(PApplet p, float dt) {
@@ -159,7 +189,11 @@ public class EarthMoon {
     	earthSpin += earthSpinSpeed * dt;
     	earthSpin %= PApplet.TWO_PI;
 
-    	//força gravitica Terra -> Lua
+    	integrator.step(moving, gravity, simDt);
+    }
+
+    //força gravitica Terra -> Lua
+    private void applyGravity() {
     	PVector r = PVector.sub(earth.getPos(), moon.getPos());
     	float dist = Math.max(r.mag(), earthR + moonR + 5f);
     	r.normalize();
@@ -172,8 +206,14 @@ public class EarthMoon {
     	PVector F = r.mult(strength);
 
     	moon.applyForce(F); 
-    	moon.move(simDt);
-    	
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
     }
 
     public void display(PApplet p) {
@@ -203,62 +243,78 @@ public class EarthMoon {
         p.circle(ep.x, ep.y, orbitR * 2);
         p.popStyle();
     	
-        //Terra e árvores fractais
+        //Terra e árvores fractais: uma imagem em cache rodada com o planeta
+        if (earthLayerDirty) { rebuildEarthLayer(p);}
+
         p.pushMatrix();
         p.translate(ep.x, ep.y);
         p.rotate(earthSpin);
+        p.imageMode(PConstants.CENTER);
+        p.image(earthLayer, 0, 0);
+        p.popMatrix();
 
-        //desenhar a Terra (centro (0,0))
-        if (earthImg != null) {
+        //Lua 
+        if (moonImg != null) {
             p.imageMode(PConstants.CENTER);
-            p.image(earthImg, 0, 0, earthR * 2, earthR * 2);
+            p.image(moonImg, mp.x, mp.y, moonR * 2, moonR * 2);
         }
+    }
+    
+    //desenha a terra e as arvores (sem rotacao) na camada offscreen
+    private void rebuildEarthLayer(PApplet p) {
+        float attachR = earthR * 0.90f;  //ligeiramente dentro da superficie da terra
+
+        //meia largura: terra ou a arvore que mais se afasta do centro
+        float half = earthR;
+        for (int i = 0; i < treeAngles.size(); i++) {
+            half = Math.max(half, attachR + 2f + treeGeometry[treeTypes.get(i)].getExtent() * treeScales.get(i));
+        }
+        int size = (int) Math.ceil(2 * half) + 4;
 
-        //desenhar as árvores
-        if (treeSystems != null && treeTurtles != null) {
-            p.pushStyle();
-            p.strokeWeight(1.1f);
-            p.noFill();
+        if (earthLayer == null || earthLayer.width != size || earthLayer.height != size) {
+            earthLayer = p.createGraphics(size, size);
+        }
 
-            float attachR = earthR * 0.90f;  //ligeiramente dentro da superficie da terra
+        PGraphics g = earthLayer;
+        g.beginDraw();
+        g.clear();
+        g.translate(size / 2f, size / 2f);
 
-            for (int i = 0; i < treeAngles.size(); i++) {
-                float theta = treeAngles.get(i);
+        //desenhar a Terra (centro (0,0))
+        if (earthImg != null) {
+            g.imageMode(PConstants.CENTER);
+            g.image(earthImg, 0, 0, earthR * 2, earthR * 2);
+        }
 
-                //posição relativa ao centro (0,0)
-                float x = PApplet.cos(theta) * attachR;
-                float y = PApplet.sin(theta) * attachR;
+        //desenhar as árvores
+        g.strokeWeight(1.1f);
+        g.noFill();
 
-                int type = treeTypes.get(i);
-                LSystem ls = treeSystems[type];
-                Turtle tt  = treeTurtles[type];
+        for (int i = 0; i < treeAngles.size(); i++) {
+            float theta = treeAngles.get(i);
 
-                p.pushMatrix();
-                p.translate(x, y);
+            //posição relativa ao centro (0,0)
+            float x = PApplet.cos(theta) * attachR;
+            float y = PApplet.sin(theta) * attachR;
 
-                p.rotate(theta);  //rotacao alinhada com a normal da superficie
+            g.pushMatrix();
+            g.translate(x, y);
 
-                p.translate(-2f, 0f);
-                p.scale(treeScales.get(i));
-                p.stroke(treeColors.get(i));
+            g.rotate(theta);  //rotacao alinhada com a normal da superficie
 
-                tt.renderPixels(ls, p);
+            g.translate(-2f, 0f);
+            g.scale(treeScales.get(i));
+            g.stroke(treeColors.get(i));
 
-                p.popMatrix();
-            }
+            treeGeometry[treeTypes.get(i)].display(g);  //todos os segmentos da arvore numa chamada
 
-            p.popStyle();
+            g.popMatrix();
         }
 
-        p.popMatrix();
-
-        //Lua 
-        if (moonImg != null) {
-            p.imageMode(PConstants.CENTER);
-            p.image(moonImg, mp.x, mp.y, moonR * 2, moonR * 2);
-        }
+        g.endDraw();
+        earthLayerDirty = false;
     }
-    
+
     //Mover simples (só px)
     private static class SimpleMover extends Mover {
         public SimpleMover(PVector pos, PVector vel, float mass, float radius) {
@@ -0,0 +1,14 @@
+package physics;
+
+/**
+ * Modelo de forças usado pelos integradores (ver Integrator).
+ *
+ * Cada chamada a applyForces() deve calcular as forças com as posições atuais
+ * e acumulá-las nos corpos com Mover.applyForce, tal como no ciclo normal de
+ * update. Integradores de ordem superior chamam-no várias vezes por passo.
+ */
+
+@FunctionalInterface
+public interface ForceModel {
+    void applyForces();
+}
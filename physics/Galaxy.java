@@ -2,7 +2,6 @@ package physics;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 
 import processing.core.PApplet;
 import processing.core.PConstants;
@@ -25,15 +24,25 @@ import ui.AssetManager;
  *
  * O núcleo é desenhado com um efeito de glow/pulso (corePulse).
  *
+ * Tudo o que na emissão depende só do raio (distribuição radial, ângulo da espiral,
+ * velocidade orbital e cor) é pré-calculado em tabelas no onEnter, indexadas pelo
+ * sorteio uniforme que escolhe o raio e interpoladas entre entradas vizinhas (sem
+ * isso as partículas nasceriam em anéis discretos perto do núcleo). Senos/cossenos
+ * vêm de uma tabela e as cores são combinadas com operações inteiras ARGB, pelo que
+ * cada partícula custa apenas algumas consultas de tabela (sem Math.pow/log,
+ * lerpColor nem objetos PVector).
+ *
  * Esta classe é puramente visual: não contém colisões, inimigos, nem lógica de gameplay.
  */
 
 
 public class Galaxy {
 
-    private final List<ParticlePhysics> haze = new ArrayList<>();    //particulas menos definidas de "poeira"
-    private final List<ParticlePhysics> highlights = new ArrayList<>();
-    private final List<ParticlePhysics> denseHighlights = new ArrayList<>();   //"tentaculos"
+    //camadas em arrays primitivos (ParticlePool): milhares de particulas sem objetos por particula
+    private final ParticlePool haze = new ParticlePool(2048);    //particulas menos definidas de "poeira"
+    private final ParticlePool highlights = new ParticlePool(1024);
+    private final ParticlePool denseHighlights = new ParticlePool(512);   //"tentaculos"
+    private final ParticleBatch batch = new ParticleBatch();  //desenho das tres camadas num lote (agrupado por blend)
 
     private PVector center;
     private float globalAngle = 0f;
@@ -69,6 +78,22 @@ public class Galaxy {
     private int denseArmsCount = 3;  //quantos bracos ficam densos por ciclo
     private int[] denseArms;    //indices dos braços mais densos (escolhido no onEnter)
 
+    //tabelas de emissao por camada (0 haze, 1 highlights, 2 densos), indexadas pelo sorteio do raio
+    private static final int TABLE_SIZE = 1024;
+    private static final int TRIG_SIZE = 4096;  //potencia de 2 (indice com mascara)
+    private static final float[] RADIAL_BIAS = {0.55f, 0.70f, 0.82f};  //haze mais para fora, dense mais perto do braco
+    private static final float[] V_INNER = {22f, 65f, 85f};  //velocidade tangencial perto do centro
+    private static final float[] V_OUTER = {7f, 22f, 28f};  //e na periferia
+    private static final float[] STAR_WHITE = {0f, 0.55f, 0.65f};  //quanto os highlights clareiam a cor base
+
+    private final float[] sinTable = new float[TRIG_SIZE];
+    private final float[][] radiusTable = new float[3][TABLE_SIZE + 1];
+    private final float[][] spiralTable = new float[3][TABLE_SIZE + 1];  //angulo da espiral logaritmica
+    private final float[][] speedTable = new float[3][TABLE_SIZE + 1];
+    private final float[][] brightTable = new float[3][TABLE_SIZE + 1];  //clarao perto do centro (0..1)
+    private final int[][] colorTable = new int[3][TABLE_SIZE + 1];  //haze: cor base; highlights: cor da estrela
+    private int pinkStar;  //cor das estrelas rosa
+
     public void onEnter(PApplet p) {
         starsBg = AssetManager.get().img("stars");  //background de estrelas
 
@@ -85,6 +110,8 @@ public class Galaxy {
         highlights.clear();
         denseHighlights.clear();
 
+        buildTables(p);
+
         //escolher aleatoriamente quais braços vão ser mais densos
         denseArmsCount = Math.min(denseArmsCount, arms);
         denseArms = pickRandomArms(denseArmsCount, arms);
@@ -101,20 +128,10 @@ public class Galaxy {
         //camada tentaculos (denso)
         emitLayer(p, dt, denseFlow, 2);
 
-        updateList(haze, dt);
-        updateList(highlights, dt);
-        updateList(denseHighlights, dt);
-    }
-
-    private void updateList(List<ParticlePhysics> list, float dt) {
-        for (int i = list.size() - 1; i >= 0; i--) {
-            ParticlePhysics par = list.get(i);
-            par.move(dt);
-            
-            if (par.isDead()) { 
-            	list.remove(i);
-            }
-        }
+        //move e remove expiradas (swap-remove, sem deslocar arrays)
+        haze.update(dt);
+        highlights.update(dt);
+        denseHighlights.update(dt);
     }
 
     /**
@@ -134,23 +151,59 @@ public class Galaxy {
         if (Math.random() < frac) { addGalaxyParticle(p, layerType);}
     }
 
+    //pre-calcula tudo o que depende apenas do raio (chamado no onEnter)
+    private void buildTables(PApplet p) {
+        for (int i = 0; i < TRIG_SIZE; i++) {
+            sinTable[i] = (float) Math.sin(i * (2 * Math.PI / TRIG_SIZE));
+        }
+
+        int white = p.color(255);
+        pinkStar = p.lerpColor(pink, white, 0.20f);
+
+        for (int layer = 0; layer < 3; layer++) {
+            for (int i = 0; i <= TABLE_SIZE; i++) {
+                float t = (float) i / TABLE_SIZE;  //sorteio uniforme no inicio deste intervalo
+
+                //bias controla onde nasce mais
+                float r = coreRadius + (float) Math.pow(t, RADIAL_BIAS[layer]) * (galaxyRadius - coreRadius);
+                radiusTable[layer][i] = r;
+
+                //espiral logaritmica: theta cresce com log(r), dando a aparência de espiral
+                spiralTable[layer][i] = spiralTightness * (float) Math.log(r / coreRadius + 1e-4f);
+
+                //mais rapido perto do centro, mais lento na periferia
+                speedTable[layer][i] = lerp(V_INNER[layer], V_OUTER[layer], r / galaxyRadius);
+
+                //cor base roxo -> azul, mais clara perto do centro
+                float bright = PApplet.constrain(1f - (r / (coreRadius * 3.0f)), 0f, 1f);
+                int base = p.lerpColor(purple, blue, r / galaxyRadius);
+                base = p.lerpColor(base, white, bright * 0.35f);
+                brightTable[layer][i] = bright;
+
+                colorTable[layer][i] = (layer == 0) ? base : p.lerpColor(base, white, STAR_WHITE[layer]);
+            }
+        }
+    }
+
+    private float sin(float a) {
+        return sinTable[(int) (a * (TRIG_SIZE / PConstants.TWO_PI)) & (TRIG_SIZE - 1)];
+    }
+
+    private float cos(float a) {
+        return sinTable[((int) (a * (TRIG_SIZE / PConstants.TWO_PI)) + TRIG_SIZE / 4) & (TRIG_SIZE - 1)];
+    }
+
     private void addGalaxyParticle(PApplet p, int layerType) {
         boolean isHaze = (layerType == 0);
         boolean isDense = (layerType == 2);
 
-        //raio
-        float t = (float) Math.random();
-        float bias;
-        if(isHaze) {
-        	bias = 0.55f;
-        } else if (isDense) {
-        	bias = 0.82f;
-        } else {
-        	bias = 0.70f;
-        }
-        
-        //bias controla onde nasce mais: haze mais para fora, dense mais perto do braco
-        float r = coreRadius + (float) Math.pow(t, bias) * (galaxyRadius - coreRadius);
+        //raio (e tudo o que depende dele) a partir de um unico sorteio,
+        //interpolado entre entradas vizinhas (perto do nucleo as entradas distam varios pixeis);
+        //u em double e k limitado: Math.random() perto de 1 arredondado a float daria k = TABLE_SIZE
+        double u = Math.random() * TABLE_SIZE;
+        int k = Math.min((int) u, TABLE_SIZE - 1);
+        float f = (float) (u - k);
+        float r = lerp(radiusTable[layerType][k], radiusTable[layerType][k + 1], f);
 
         //braço
         int armIndex;
@@ -162,9 +215,7 @@ public class Galaxy {
         }
         float armOffset = armIndex * (PConstants.TWO_PI / arms);
 
-        //espiral logaritmica: theta cresce com log(r), dando a aparência de espiral
-        float theta = spiralTightness * (float) Math.log(r / coreRadius + 1e-4f);
-        theta += armOffset;
+        float theta = lerp(spiralTable[layerType][k], spiralTable[layerType][k + 1], f) + armOffset;
 
         //spread
         float spread;
@@ -181,32 +232,22 @@ public class Galaxy {
         theta += globalAngle; //rotação global
 
         //posição
-        float x = center.x + r * PApplet.cos(theta);
-        float y = center.y + r * PApplet.sin(theta) * flatten;
-        PVector spawnPos = new PVector(x, y);
+        float cosT = cos(theta);
+        float sinT = sin(theta);
+        float x = center.x + r * cosT;
+        float y = center.y + r * sinT * flatten;
 
-        //vetor tangencial para movimento circular à volta do centro
-        PVector tang = new PVector(-PApplet.sin(theta), PApplet.cos(theta));
-        tang.y *= flatten;
-        tang.normalize();
+        //vetor tangencial para movimento circular à volta do centro (normalizado)
+        float tx = -sinT;
+        float ty = cosT * flatten;
+        float tInv = 1f / (float) Math.sqrt(tx * tx + ty * ty);
 
-        float vInner, vOuter;
-        if (isHaze) {
-            vInner = 22f; 
-            vOuter = 7f;
-            
-        } else if (isDense) {
-            //tentaculos: um bocadinho mais rapidos para "puxarem" o braço
-            vInner = 85f; 
-            vOuter = 28f;
-            
-        } else {
-            vInner = 65f; 
-            vOuter = 22f;
-        }
-        
-        //lerp: mais rapido perto do centro, mais lento na periferia
-        float v = PApplet.lerp(vInner, vOuter, r / galaxyRadius); 
+        //direcao radial (centro -> particula), tambem achatada
+        float rx = cosT;
+        float ry = sinT * flatten;
+        float rInv = 1f / (float) Math.sqrt(rx * rx + ry * ry);
+
+        float v = lerp(speedTable[layerType][k], speedTable[layerType][k + 1], f);
 
         //drift radial pequeno para evitar criações demasiado perfeitas
         float drift;
@@ -217,10 +258,6 @@ public class Galaxy {
         } else {
         	drift = 2.4f;
         }
-        
-        PVector radial = PVector.sub(spawnPos, center);
-        if (radial.magSq() > 0.0001f) { radial.normalize();}
-        radial.mult(drift);
 
         //noise baixo
         float noiseAmp;
@@ -232,32 +269,23 @@ public class Galaxy {
         	noiseAmp = 2.0f;
         }
         
-        //noise baixo para quebrar padroes repetitivos
-        PVector noise = PVector.random2D().mult(noiseAmp);
-        noise.y *= flatten;
-
-        PVector spawnVel = tang.mult(v).add(radial).add(noise);
-
-        //cor base roxo -> azul
-        float mix = r / galaxyRadius;
-        int base = p.lerpColor(purple, blue, mix);
+        //noise baixo para quebrar padroes repetitivos (direcao aleatoria)
+        float na = (float) Math.random() * PConstants.TWO_PI;
+        float nx = cos(na) * noiseAmp;
+        float ny = sin(na) * noiseAmp * flatten;
 
-        //perto do centro mais claro
-        float bright = PApplet.constrain(1f - (r / (coreRadius * 3.0f)), 0f, 1f);
-        base = p.lerpColor(base, p.color(255), bright * 0.35f);
+        float vx = tx * tInv * v + rx * rInv * drift + nx;
+        float vy = ty * tInv * v + ry * rInv * drift + ny;
 
         //params por camada
         float pr, life;
-        int c;
 
         if (isHaze) {
             pr = lerp(2.6f, 6.2f, (float) Math.random());
             life = lerp(2.2f, 4.2f, (float) Math.random());
 
-            float a = lerp(10f, 24f, (float) Math.random()) + bright * 18f;
-            c = withAlpha(p, base, a);
-
-            haze.add(new ParticlePhysics(spawnPos, spawnVel, pr, c, life));
+            float a = lerp(10f, 24f, (float) Math.random()) + lerp(brightTable[layerType][k], brightTable[layerType][k + 1], f) * 18f;
+            haze.add(x, y, vx, vy, pr, withAlpha(lerpArgb(colorTable[layerType][k], colorTable[layerType][k + 1], f), a), life);
             return;
         }
 
@@ -278,17 +306,8 @@ public class Galaxy {
             pinkChance = 0.28f;
         }
         
-        //cor do resto
-        int starCol;
-        if (Math.random() < pinkChance) {
-            starCol = p.lerpColor(pink, p.color(255), 0.20f);
-        } else {
-            if (isDense) {
-                starCol = p.lerpColor(base, p.color(255), 0.65f);
-            } else {
-                starCol = p.lerpColor(base, p.color(255), 0.55f);
-            }
-        }
+        //cor do resto (ja clareada na tabela)
+        int starCol = (Math.random() < pinkChance) ? pinkStar : lerpArgb(colorTable[layerType][k], colorTable[layerType][k + 1], f);
 
         //alpha: braços mais densos
         float a;
@@ -298,29 +317,34 @@ public class Galaxy {
             a = lerp(120f, 235f, (float) Math.random());
         }
 
-        c = withAlpha(p, starCol, a);
+        int c = withAlpha(starCol, a);
 
         if (isDense) { 
-        	denseHighlights.add(new ParticlePhysics(spawnPos, spawnVel, pr, c, life));
+        	denseHighlights.add(x, y, vx, vy, pr, c, life);
         } else { 
-        	highlights.add(new ParticlePhysics(spawnPos, spawnVel, pr, c, life));
+        	highlights.add(x, y, vx, vy, pr, c, life);
         }
     }
 
+    //particulas vivas nas tres camadas
+    public int getParticleCount() {
+        return haze.size() + highlights.size() + denseHighlights.size();
+    }
+
     public void display(PApplet p) {
         p.background(10);
         p.imageMode(PApplet.CORNER);
         if (starsBg != null) { p.image(starsBg, 0, 0, p.width, p.height);}
 
         //blend normal para haze (base suave)
-        p.blendMode(PApplet.BLEND);
-        for (ParticlePhysics par : haze) par.display(p);
+        haze.collect(batch, PApplet.BLEND);
 
         //add para highlights: soma cores e cria brilho neon
-        p.blendMode(PApplet.ADD);
-        for (ParticlePhysics par : highlights) { par.display(p);}
-        for (ParticlePhysics par : denseHighlights) { par.display(p);}
+        highlights.collect(batch, PApplet.ADD);
+        denseHighlights.collect(batch, PApplet.ADD);
+        batch.flush(p);
 
+        p.blendMode(PApplet.ADD);
         drawCoreGlow(p);
 
         p.blendMode(PApplet.BLEND);
@@ -362,8 +386,18 @@ public class Galaxy {
         return a + (b - a) * t;
     }
 
-    private int withAlpha(PApplet p, int col, float alpha) {
-        alpha = PApplet.constrain(alpha, 0, 255);
-        return p.color(p.red(col), p.green(col), p.blue(col), alpha);
+    //interpolacao canal a canal entre duas cores RGB (o alpha e posto depois com withAlpha)
+    private int lerpArgb(int c0, int c1, float t) {
+        int r0 = (c0 >> 16) & 0xFF, g0 = (c0 >> 8) & 0xFF, b0 = c0 & 0xFF;
+        int r = r0 + (int) ((((c1 >> 16) & 0xFF) - r0) * t);
+        int g = g0 + (int) ((((c1 >> 8) & 0xFF) - g0) * t);
+        int b = b0 + (int) (((c1 & 0xFF) - b0) * t);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    //substitui o alpha da cor (operacao inteira sobre ARGB)
+    private int withAlpha(int col, float alpha) {
+        int a = (int) PApplet.constrain(alpha, 0, 255);
+        return (a << 24) | (col & 0xFFFFFF);
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package physics;
+
+import java.util.List;
+
+/**
+ * Métodos de integração temporal para um conjunto de Movers.
+ *
+ * Todos usam a acumulação de forças existente (applyForce): em cada avaliação o
+ * ForceModel aplica as forças e o integrador consome a aceleração acumulada.
+ *
+ *  - EULER: Euler semi-implícito (o Mover.move original), 1 avaliação por passo
+ *  - LEAPFROG: leapfrog / Verlet (drift-kick-drift), 1 avaliação por passo,
+ *    simplético e de 2ª ordem: a energia de uma órbita oscila mas não deriva
+ *  - YOSHIDA4: composição de três leapfrogs (Yoshida, 4ª ordem), 3 avaliações por passo,
+ *    permite passos muito maiores para a mesma precisão
+ *
+ * Corpos fixos (ex: o sol) simplesmente não fazem parte da lista a integrar.
+ */
+
+public enum Integrator {
+    EULER, LEAPFROG, YOSHIDA4;
+
+    //coeficientes de Yoshida: w1 = 1 / (2 - 2^(1/3)), w0 = 1 - 2 * w1
+    private static final double W1 = 1 / (2 - Math.cbrt(2));
+    private static final double W0 = 1 - 2 * W1;
+    private static final float[] YOSHIDA_DRIFT = {(float) (W1 / 2), (float) ((W0 + W1) / 2), (float) ((W0 + W1) / 2), (float) (W1 / 2)};
+    private static final float[] YOSHIDA_KICK = {(float) W1, (float) W0, (float) W1};
+
+    //avanca todos os corpos um passo dt
+    public void step(List<? extends Mover> bodies, ForceModel forces, float dt) {
+        switch (this) {
+            case EULER:
+                forces.applyForces();
+                for (int i = 0; i < bodies.size(); i++) {
+                    bodies.get(i).move(dt);
+                }
+                return;
+
+            case LEAPFROG:
+                drift(bodies, dt / 2);
+                forces.applyForces();
+                kick(bodies, dt);
+                drift(bodies, dt / 2);
+                break;
+
+            case YOSHIDA4:
+                for (int k = 0; k < YOSHIDA_KICK.length; k++) {
+                    drift(bodies, YOSHIDA_DRIFT[k] * dt);
+                    forces.applyForces();
+                    kick(bodies, YOSHIDA_KICK[k] * dt);
+                }
+                drift(bodies, YOSHIDA_DRIFT[3] * dt);
+                break;
+        }
+
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).afterMove();
+        }
+    }
+
+    //avaliacoes do ForceModel por passo
+    public int forceEvaluations() {
+        return this == YOSHIDA4 ? 3 : 1;
+    }
+
+    private static void drift(List<? extends Mover> bodies, float dt) {
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).drift(dt);
+        }
+    }
+
+    private static void kick(List<? extends Mover> bodies, float dt) {
+        for (int i = 0; i < bodies.size(); i++) {
+            bodies.get(i).kick(dt);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package physics;
+
+import processing.core.PVector;
+
+/**
+ * Órbita kepleriana (elíptica, 2D) de um corpo em torno de uma massa central fixa.
+ *
+ * Os elementos orbitais são obtidos uma vez a partir do estado (posição e velocidade
+ * relativas ao corpo central) e, a partir daí, a posição em qualquer instante t é
+ * calculada em forma fechada:
+ *  - anomalia média M = M0 + n * t
+ *  - anomalia excêntrica E pela equação de Kepler, M = E - e sin(E) (iterações de Newton)
+ *  - posição no plano da órbita (a (cos E - e), b sin E), rodada pelo argumento do periapsis
+ *
+ * O custo é O(1) por corpo e não há acumulação de erro: pode-se saltar diretamente
+ * para qualquer tempo de simulação. Só o problema de dois corpos é representado
+ * (não há perturbações entre planetas).
+ *
+ * Órbitas não ligadas (parabólicas ou hiperbólicas) não são suportadas: fromState devolve null.
+ */
+
+public class KeplerOrbit {
+
+    private static final int MAX_NEWTON = 8;  //iteracoes de Newton (converge em 3-4 para e < 0.9)
+
+    private final double a, e, b;  //semi-eixo maior, excentricidade, semi-eixo menor
+    private final double n;  //movimento medio (rad/s)
+    private final double meanAnomaly0;  //anomalia media em t = 0
+    private final double cosW, sinW;  //rotacao do periapsis
+    private final double dir;  //+1 sentido anti-horario, -1 horario
+    private final double cx, cy;  //posicao do corpo central
+
+    private KeplerOrbit(double a, double e, double n, double meanAnomaly0, double w, double dir, double cx, double cy) {
+        this.a = a;
+        this.e = e;
+        this.b = a * Math.sqrt(1 - e * e);
+        this.n = n;
+        this.meanAnomaly0 = meanAnomaly0;
+        this.cosW = Math.cos(w);
+        this.sinW = Math.sin(w);
+        this.dir = dir;
+        this.cx = cx;
+        this.cy = cy;
+    }
+
+    //elementos orbitais a partir do estado atual do corpo (mu = G * massa central)
+    public static KeplerOrbit fromState(PVector pos, PVector vel, PVector center, double mu) {
+        double rx = pos.x - center.x, ry = pos.y - center.y;
+        double vx = vel.x, vy = vel.y;
+
+        double r = Math.sqrt(rx * rx + ry * ry);
+        double v2 = vx * vx + vy * vy;
+        double a = 1 / (2 / r - v2 / mu);  //vis-viva
+        if (!(a > 0)) { return null;}  //orbita nao ligada
+
+        double h = rx * vy - ry * vx;  //momento angular (sinal = sentido da orbita)
+        double dir = h >= 0 ? 1 : -1;
+
+        //vetor excentricidade
+        double rv = rx * vx + ry * vy;
+        double ex = ((v2 - mu / r) * rx - rv * vx) / mu;
+        double ey = ((v2 - mu / r) * ry - rv * vy) / mu;
+        double e = Math.sqrt(ex * ex + ey * ey);
+        if (e >= 1) { return null;}
+
+        double w = e > 1e-9 ? Math.atan2(ey, ex) : 0;  //orbita circular: periapsis arbitrario
+
+        //posicao no referencial da orbita -> anomalia excentrica inicial
+        double px = Math.cos(w) * rx + Math.sin(w) * ry;
+        double py = (-Math.sin(w) * rx + Math.cos(w) * ry) * dir;
+        double bAxis = a * Math.sqrt(1 - e * e);
+        double E0 = Math.atan2(py / bAxis, px / a + e);
+        double M0 = E0 - e * Math.sin(E0);
+
+        double n = Math.sqrt(mu / (a * a * a));
+        return new KeplerOrbit(a, e, n, M0, w, dir, center.x, center.y);
+    }
+
+    //posicao e velocidade no instante t (segundos de simulacao); vel pode ser null
+    public void stateAt(double t, PVector pos, PVector vel) {
+        double M = (meanAnomaly0 + n * t) % (2 * Math.PI);
+        double E = solveKepler(M);
+
+        double cosE = Math.cos(E), sinE = Math.sin(E);
+        double px = a * (cosE - e);
+        double py = b * sinE * dir;
+
+        pos.x = (float) (cx + cosW * px - sinW * py);
+        pos.y = (float) (cy + sinW * px + cosW * py);
+
+        if (vel != null) {
+            double eDot = n / (1 - e * cosE);  //dE/dt
+            double vx = -a * sinE * eDot;
+            double vy = b * cosE * eDot * dir;
+            vel.x = (float) (cosW * vx - sinW * vy);
+            vel.y = (float) (sinW * vx + cosW * vy);
+        }
+    }
+
+    //resolve M = E - e sin(E) por Newton
+    private double solveKepler(double M) {
+        double E = e < 0.8 ? M : Math.PI;
+        for (int i = 0; i < MAX_NEWTON; i++) {
+            double dE = (E - e * Math.sin(E) - M) / (1 - e * Math.cos(E));
+            E -= dE;
+            if (Math.abs(dE) < 1e-12) { break;}
+        }
+        return E;
+    }
+
+    public double getSemiMajorAxis() {
+        return a;
+    }
+
+    public double getEccentricity() {
+        return e;
+    }
+
+    public double getPeriod() {
+        return 2 * Math.PI / n;
+    }
+}
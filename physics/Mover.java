@@ -14,7 +14,11 @@ import processing.core.PVector;
  *
  * O movimento é calculado através de uma integração simples
  * (Euler), adequada para simulações leves e efeitos visuais
- * no contexto do jogo.
+ * no contexto do jogo. Para órbitas, os métodos kick/drift permitem
+ * integradores simpléticos de ordem superior (ver Integrator).
+ *
+ * A posição do passo anterior (savePrevious) permite desenhar entre dois passos
+ * fixos de simulação: renderX/renderY interpolam com o alpha do ciclo de jogo.
  *
  * Esta classe serve de base para entidades físicas concretas
  * (por exemplo, corpos celestes ou partículas)
@@ -26,6 +30,7 @@ public abstract class Mover {
     protected PVector acc;
     protected float mass;
     protected float radius;
+    protected float prevX, prevY;  //posicao no passo anterior (desenho interpolado)
 
     protected Mover(PVector pos, PVector vel, float mass, float radius) {
         this.pos = pos.copy();
@@ -33,18 +38,71 @@ public abstract class Mover {
         this.mass = mass;
         this.radius = radius;
         acc = new PVector();
+        savePrevious();
     }
 
-    //aplicar força ao objeto
+    //aplicar força ao objeto (acumulado in-place, sem vetores temporarios)
     public void applyForce(PVector force) {
-        acc.add(PVector.div(force, mass));
+        acc.x += force.x / mass;
+        acc.y += force.y / mass;
+        acc.z += force.z / mass;
     }
 
     //atualizar posição e velocidade no tempo
     public void move(float dt) {
-        vel.add(PVector.mult(acc, dt));
-        pos.add(PVector.mult(vel, dt));
-        acc.mult(0);
+        vel.x += acc.x * dt;
+        vel.y += acc.y * dt;
+        vel.z += acc.z * dt;
+
+        pos.x += vel.x * dt;
+        pos.y += vel.y * dt;
+        pos.z += vel.z * dt;
+
+        acc.set(0, 0, 0);
+        afterMove();
+    }
+
+    //meio passo de velocidade: consome a aceleracao acumulada
+    public void kick(float dt) {
+        vel.x += acc.x * dt;
+        vel.y += acc.y * dt;
+        vel.z += acc.z * dt;
+
+        acc.set(0, 0, 0);
+    }
+
+    //meio passo de posicao com a velocidade atual
+    public void drift(float dt) {
+        pos.x += vel.x * dt;
+        pos.y += vel.y * dt;
+        pos.z += vel.z * dt;
+    }
+
+    //guarda a posicao atual como a do passo anterior (no inicio de cada passo fixo)
+    public void savePrevious() {
+        prevX = pos.x;
+        prevY = pos.y;
+    }
+
+    //posicao a desenhar entre o passo anterior (alpha 0) e o atual (alpha 1)
+    public float renderX(float alpha) {
+        return prevX + (pos.x - prevX) * alpha;
+    }
+
+    public float renderY(float alpha) {
+        return prevY + (pos.y - prevY) * alpha;
+    }
+
+    public float getPrevX() {
+        return prevX;
+    }
+
+    public float getPrevY() {
+        return prevY;
+    }
+
+    //chamado no fim de cada passo completo (move ou Integrator.step)
+    protected void afterMove() {
     }
 
     public PVector getPos() {
@@ -53,6 +111,7 @@ public abstract class Mover {
 
     public void setPos(PVector pos) {
         this.pos = pos;
+        savePrevious();  //teletransporte: sem interpolar a partir da posicao antiga
     }
 
     public PVector getVel() {
@@ -0,0 +1,106 @@
+package physics;
+
+import java.util.Arrays;
+
+import processing.core.PApplet;
+
+/**
+ * Desenho em lote de partículas circulares, agrupadas por modo de blend.
+ *
+ * Desenhar cada partícula com pushStyle/noStroke/fill/circle/popStyle custa mais
+ * (sobretudo em Java2D) do que o próprio círculo. Um ParticleBatch recolhe, para uma
+ * camada inteira, a posição, o diâmetro e a cor ARGB de cada partícula e desenha-as
+ * em flush() numa só passagem:
+ *  - um único pushStyle/noStroke para o lote inteiro
+ *  - um grupo por modo de blend (BLEND, ADD, ...), desenhados pela ordem em que
+ *    foram usados pela primeira vez, com um único blendMode por grupo
+ *
+ * A ordem dentro de cada grupo é a ordem de add(). Depois do flush o lote fica
+ * vazio e os arrays são reutilizados no frame seguinte.
+ */
+
+public class ParticleBatch {
+
+    private int groupCount;
+    private int[] modes = new int[4];
+    private Group[] groups = new Group[4];
+
+    //junta uma particula com a cor argb e o alpha dado, como em fill(color, alpha):
+    //o alpha da propria cor e multiplicado por alpha / 255
+    public void add(int blendMode, float x, float y, float diameter, int color, float alpha) {
+        float k = alpha >= 255 ? 1f : alpha / 255f;
+        int a = (int) ((color >>> 24) * k);
+        if (a <= 0) { return;}  //invisivel
+        group(blendMode).add(x, y, diameter, (a << 24) | (color & 0xFFFFFF));
+    }
+
+    //desenha tudo o que foi recolhido e esvazia o lote
+    public void flush(PApplet p) {
+        if (isEmpty()) { return;}
+
+        p.pushStyle();
+        p.noStroke();
+        for (int g = 0; g < groupCount; g++) {
+            Group group = groups[g];
+            if (group.count == 0) { continue;}
+
+            p.blendMode(modes[g]);
+            for (int i = 0; i < group.count; i++) {
+                p.fill(group.argb[i]);
+                p.circle(group.x[i], group.y[i], group.d[i]);
+            }
+            group.count = 0;
+        }
+        p.blendMode(PApplet.BLEND);
+        p.popStyle();
+    }
+
+    public boolean isEmpty() {
+        for (int g = 0; g < groupCount; g++) {
+            if (groups[g].count > 0) { return false;}
+        }
+        return true;
+    }
+
+    public int size() {
+        int n = 0;
+        for (int g = 0; g < groupCount; g++) { n += groups[g].count;}
+        return n;
+    }
+
+    private Group group(int mode) {
+        for (int g = 0; g < groupCount; g++) {
+            if (modes[g] == mode) { return groups[g];}
+        }
+
+        if (groupCount == modes.length) {
+            modes = Arrays.copyOf(modes, groupCount * 2);
+            groups = Arrays.copyOf(groups, groupCount * 2);
+        }
+        modes[groupCount] = mode;
+        groups[groupCount] = new Group();
+        return groups[groupCount++];
+    }
+
+    //particulas de um modo de blend (arrays primitivos)
+    private static class Group {
+        float[] x = new float[256], y = new float[256], d = new float[256];
+        int[] argb = new int[256];
+        int count;
+
+        void add(float px, float py, float diameter, int c) {
+            if (count == x.length) {
+                int cap = count * 2;
+                x = Arrays.copyOf(x, cap);
+                y = Arrays.copyOf(y, cap);
+                d = Arrays.copyOf(d, cap);
+                argb = Arrays.copyOf(argb, cap);
+            }
+            x[count] = px;
+            y[count] = py;
+            d[count] = diameter;
+            argb[count] = c;
+            count++;
+        }
+    }
+}
@@ -55,4 +55,10 @@ public class ParticlePhysics extends Mover {
         p.popStyle();
     }
 
+    //alternativa ao display: junta a particula a um lote (sem pushStyle/popStyle por particula)
+    public void collect(ParticleBatch batch, int blendMode) {
+        float alpha = PApplet.map(timer, 0, lifeSpan, 255, 0);
+        batch.add(blendMode, pos.x, pos.y, 2 * radius, color, alpha);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package physics;
+
+import processing.core.PApplet;
+
+/**
+ * Conjunto de partículas guardado em arrays primitivos (structure-of-arrays).
+ *
+ * Um ParticlePool substitui uma lista de ParticlePhysics quando há milhares de
+ * partículas vivas: em vez de um objeto (com três PVector) por partícula, cada
+ * atributo fica num array próprio indexado pela partícula:
+ *  - posição (x, y) e velocidade (vx, vy)
+ *  - tempo de vida decorrido (life) e total (lifeSpan)
+ *  - raio e cor
+ *
+ * As partículas vivas ocupam sempre os índices [0, size). Quando uma partícula
+ * expira, a última é copiada para o seu lugar (swap-remove), pelo que remover é
+ * O(1) e a atualização de todo o conjunto é linear, sem alocações por partícula.
+ * Os arrays só crescem (duplicando) quando a capacidade é excedida.
+ *
+ * O movimento e o fade-out são os mesmos de ParticlePhysics: velocidade constante,
+ * alpha de 255 a 0 ao longo do tempo de vida. A ordem de desenho não é preservada.
+ */
+
+public class ParticlePool {
+
+    private float[] x, y, vx, vy;
+    private float[] life, lifeSpan;  //tempo decorrido e tempo de vida total (segundos)
+    private float[] radius;
+    private int[] color;
+    private int size;
+
+    public ParticlePool(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 16));
+    }
+
+    //adiciona uma particula (copia os valores, nao guarda referencias)
+    public void add(float px, float py, float pvx, float pvy, float r, int c, float span) {
+        if (size == x.length) { grow();}
+
+        int i = size++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        life[i] = 0;
+        lifeSpan[i] = span;
+        radius[i] = r;
+        color[i] = c;
+    }
+
+    //move todas as particulas e remove as que excederam o tempo de vida
+    public void update(float dt) {
+        int i = 0;
+        while (i < size) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            life[i] += dt;
+
+            if (life[i] > lifeSpan[i]) {
+                removeAt(i);  //a ultima particula ocupa o indice i e e processada a seguir
+            } else {
+                i++;
+            }
+        }
+    }
+
+    public void display(PApplet p) {
+        p.pushStyle();
+        p.noStroke();
+
+        for (int i = 0; i < size; i++) {
+            //fade-out progressivo baseado no tempo de vida
+            float alpha = PApplet.map(life[i], 0, lifeSpan[i], 255, 0);
+            p.fill(color[i], alpha);
+            p.circle(x[i], y[i], 2 * radius[i]);
+        }
+
+        p.popStyle();
+    }
+
+    //junta todas as particulas a um lote (desenhadas depois com ParticleBatch.flush)
+    public void collect(ParticleBatch batch, int blendMode) {
+        for (int i = 0; i < size; i++) {
+            float alpha = 255 * (1 - life[i] / lifeSpan[i]);  //mesmo fade-out que display
+            batch.add(blendMode, x[i], y[i], 2 * radius[i], color[i], alpha);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    //swap-remove: copia a ultima particula para o indice i
+    private void removeAt(int i) {
+        int last = --size;
+        if (i == last) { return;}
+
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+        lifeSpan[i] = lifeSpan[last];
+        radius[i] = radius[last];
+        color[i] = color[last];
+    }
+
+    private void grow() {
+        int n = size;
+        float[] ox = x, oy = y, ovx = vx, ovy = vy, olife = life, ospan = lifeSpan, orad = radius;
+        int[] ocol = color;
+
+        allocate(x.length * 2);
+
+        System.arraycopy(ox, 0, x, 0, n);
+        System.arraycopy(oy, 0, y, 0, n);
+        System.arraycopy(ovx, 0, vx, 0, n);
+        System.arraycopy(ovy, 0, vy, 0, n);
+        System.arraycopy(olife, 0, life, 0, n);
+        System.arraycopy(ospan, 0, lifeSpan, 0, n);
+        System.arraycopy(orad, 0, radius, 0, n);
+        System.arraycopy(ocol, 0, color, 0, n);
+    }
+
+    private void allocate(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new float[capacity];
+        lifeSpan = new float[capacity];
+        radius = new float[capacity];
+        color = new int[capacity];
+    }
+}
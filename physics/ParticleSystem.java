@@ -3,15 +3,12 @@ package physics;
 import processing.core.PApplet;
 import processing.core.PVector;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Classe que gere um sistema de partículas associado a um corpo no mundo.
  *
  * Um ParticleSystem herda de Body para poder ter posição/velocidade próprias,
- * funcionando como "emissor" de partículas. As partículas geradas são instâncias de
- *  ParticlePhysics, que:
+ * funcionando como "emissor" de partículas. As partículas geradas são guardadas num
+ * ParticlePool (arrays primitivos, com o mesmo comportamento de ParticlePhysics), e:
  *  - são criadas com parâmetros fornecidos por PSControl
  *  - são atualizadas a cada frame (movimento + timer)
  *  - são removidas automaticamente quando excedem o seu tempo de vida
@@ -19,17 +16,20 @@ import java.util.List;
  * A emissão é baseada num fluxo (partículas/segundo) e utiliza uma componente fracionária
  * (probabilidade) para manter um fluxo médio estável sem depender do framerate.
  *
+ * O desenho é feito em lote (ParticleBatch): um único estilo para todas as partículas.
+ *
  * Esta classe é focada em efeitos visuais e não contém lógica de colisões ou gameplay.
  */
 
 public class ParticleSystem extends Body {
 
-    private final List<ParticlePhysics> particlePhysics;
+    private final ParticlePool particles;
     private final PSControl psc;
+    private final ParticleBatch batch = new ParticleBatch();
 
     public ParticleSystem(PVector pos, PVector vel, float mass, float radius, PSControl psc) {
         super(pos, vel, mass, radius, 0);
-        this.particlePhysics = new ArrayList<ParticlePhysics>();
+        this.particles = new ParticlePool(256);
         this.psc = psc;
     }
 
@@ -39,22 +39,14 @@ public class ParticleSystem extends Body {
         addParticles(dt); //criação baseada no dt do frame
         
         //atualizar particulas e remover as que expiraram
-        for (int i = particlePhysics.size() - 1; i >= 0; i--) {
-            ParticlePhysics p = particlePhysics.get(i);
-            p.move(dt);
-            if (p.isDead()) particlePhysics.remove(i);
-        }
+        particles.update(dt);
     }
 
     //método alternativo para separar dt da física e dt da emissão
     public void move(float dtPhysics, float dtEmission) {
 		super.move(dtPhysics);
         addParticles(dtEmission);
-        for (int i = particlePhysics.size() -1; i >= 0 ; i--) {
-            ParticlePhysics p = particlePhysics.get(i);
-            p.move(dtPhysics);
-            if (p.isDead()) particlePhysics.remove(i);
-        }
+        particles.update(dtPhysics);
     }
 
     //devolve o controlador do sistema
@@ -64,14 +56,13 @@ public class ParticleSystem extends Body {
     
     //cria uma particula nova usando os parametros aleatorios do controlador
     protected void addOneParticle() {
-        ParticlePhysics particlePhysics = new ParticlePhysics(pos, psc.getRndVel(), psc.getRndRadius(), psc.getColor(), psc.getRndLifetime());
-        this.particlePhysics.add(particlePhysics);
+        PVector vel = psc.getRndVel();
+        particles.add(pos.x, pos.y, vel.x, vel.y, psc.getRndRadius(), psc.getColor(), psc.getRndLifetime());
     }
     
     //cria uma particula com parametros definidos (spawn manual)
     protected void addOneParticle(PVector spawnPos, PVector spawnVel, float radius, int color, float lifetime) {
-        ParticlePhysics particlePhysics = new ParticlePhysics(spawnPos, spawnVel, radius, color, lifetime);
-        this.particlePhysics.add(particlePhysics);
+        particles.add(spawnPos.x, spawnPos.y, spawnVel.x, spawnVel.y, radius, color, lifetime);
     }
     
     //emitir partículas proporcionalmente ao fluxo
@@ -93,8 +84,12 @@ public class ParticleSystem extends Body {
     }
 
     public void display(PApplet p) {
-        for (ParticlePhysics particlePhysics : this.particlePhysics) {
-            particlePhysics.display(p);
-        }
+        particles.collect(batch, PApplet.BLEND);
+        batch.flush(p);
+    }
+
+    //junta as particulas a um lote partilhado (varios sistemas desenhados de uma vez)
+    public void collect(ParticleBatch target, int blendMode) {
+        particles.collect(target, blendMode);
     }
 }
\ No newline at end of file
@@ -15,6 +15,21 @@ import java.util.List;
  * Este cenário simula órbitas de planetas e um cinto de asteroides em torno do Sol,
  * usando uma aproximação gravitacional simples (força central sol -> corpo).
  *
+ * Opcionalmente (construtor com ângulo de abertura) a gravidade passa a ser mútua
+ * entre todos os corpos, calculada com o solver BarnesHut em O(n log n): os planetas
+ * perturbam o cinto de asteroides, que pode ter dezenas de milhares de corpos.
+ * O sol continua fixo no centro.
+ *
+ * A integração usa um Integrator selecionável (por omissão leapfrog, simplético),
+ * para que as órbitas se mantenham estáveis apesar do passo enorme (dt * speedUp).
+ * Em alternativa, setBlockTimestep ativa passos por corpo em potências de dois
+ * (BlockTimestep): corpos interiores dão mais subpassos por frame que os exteriores.
+ *
+ * No modo efeméride (setEphemerisMode) não há integração: cada corpo segue a sua
+ * órbita kepleriana em torno do sol (KeplerOrbit), calculada em forma fechada a partir
+ * do tempo de simulação, o que permite também saltar para qualquer instante
+ * (setSimulationTime). Este modo ignora a gravidade mútua.
+ *
  * As posições e velocidades iniciais são baseadas em valores reais (ordens de grandeza),
  * mas a simulação é acelerada através do fator speedUp para que o movimento seja
  * perceptível em tempo real.
@@ -73,7 +88,7 @@ public class SolarSystem {
     private final float neptuneMass = 1.0243e26f;
 
     //ASTEROIDES
-    private final int numAsteroids = 200;
+    private int numAsteroids = 200;
     private final float beltInner = distMarsSun * 1.15f;
     private final float beltOuter = distJupiterSun * 0.75f;
     private final float minAstRadius = 1e9f;
@@ -91,11 +106,55 @@ public class SolarSystem {
 
     private PImage starsBg;  //fundo de ecrã estrelas
 
+    //coordenadas dos asteroides convertidas em lote para desenho
+    private float[] astX = new float[0], astY = new float[0], astR = new float[0];
+
+    //gravidade mutua (null -> so atracao do sol)
+    private BarnesHut gravity;
+    private final List<Mover> allBodies = new ArrayList<>();  //planetas + asteroides indexados na arvore
+    private final PVector force = new PVector();  //forca reutilizada em cada corpo
+
+    private final List<Mover> movingBodies = new ArrayList<>();  //todos menos o sol (fixo)
+    private Integrator integrator = Integrator.LEAPFROG;
+    private final ForceModel sunForces = this::applySunForces;
+    private final ForceModel nBodyForces = this::applyNBodyForces;
+    private final ForceModel unboundSunForces = this::applySunForcesUnbound;  //modo efemeride
+
+    //modo efemeride: orbitas keplerianas em forma fechada (null -> integracao numerica)
+    private KeplerOrbit[] orbits;
+    private final List<Mover> unboundBodies = new ArrayList<>();  //sem orbita eliptica: continuam a ser integrados
+    private double simTime;  //tempo de simulacao (s)
+    private double ephemerisEpoch;  //tempo em que as orbitas foram calculadas
+
+    //passos por blocos (null -> todos os corpos com o mesmo passo)
+    private BlockTimestep blockSteps;
+    private final BlockTimestep.BodyForce sunForce = m -> m.applyForce(sun.attraction(m));
+    private final BlockTimestep.BodyForce treeForce = new BlockTimestep.BodyForce() {
+        //arvore em dia em cada tick (refit dos poucos corpos movidos, reconstrucao quando sao muitos):
+        //um corpo que se moveu nunca e atraido pela sua propria massa antiga
+        @Override
+        public void prepare() {
+            gravity.update(allBodies);
+        }
+
+        @Override
+        public void applyTo(Mover m) {
+            m.applyForce(gravity.computeForce(m, force));
+        }
+    };
+
     public SolarSystem() {
         planets = new ArrayList<>();
         asteroids = new ArrayList<>();
     }
 
+    //gravidade mutua Barnes-Hut com o angulo de abertura dado (ex: 0.5)
+    public SolarSystem(int numAsteroids, float openingAngle) {
+        this();
+        this.numAsteroids = numAsteroids;
+        this.gravity = new BarnesHut(G, openingAngle, minAstRadius); //softening da ordem do raio de um asteroide
+    }
+
     public void onEnter(PApplet p) {
         
         starsBg = AssetManager.get().img("stars");  //background
@@ -137,7 +196,21 @@ public class SolarSystem {
         planets.add(uranus);
         planets.add(neptune);
 
+        //rastos guardam no maximo um ponto por pixel
+        float worldPerPixel = 1 / plt.getDimInPixel(1, 1)[0];
+        for (CelestialBody b : planets) { b.setTrailMinSpacing(worldPerPixel);}
+
         asteroides(p);
+
+        allBodies.clear();
+        allBodies.addAll(planets);
+        allBodies.addAll(asteroids);
+
+        movingBodies.clear();
+        movingBodies.addAll(allBodies);
+        movingBodies.remove(sun);
+
+        if (blockSteps != null) { blockSteps.invalidate();}  //corpos novos: aceleracoes guardadas ja nao valem
     }
     
     //método para a criação dos asteroides
@@ -180,25 +253,127 @@ public class SolarSystem {
     }
 
     public void update(PApplet p, float dt) {
+        simTime += (double) dt * speedUp;
 
-        //atualizar planetas (atração sol -> planeta)
-        for (CelestialBody planet : planets) {
-            if (planet == sun) {continue;}   //sol mantem-se fixo
-            PVector f = sun.attraction(planet);
-            
-            //aplica gravidade sol->corpo e integra com tempo acelerado
-            planet.applyForce(f);
-            planet.move(dt * speedUp);
+        if (orbits != null) {
+            updateEphemeris();
+            if (!unboundBodies.isEmpty()) { integrator.step(unboundBodies, unboundSunForces, dt * speedUp);}
+            return;
         }
 
-        //atualizar asteriodes
-        for (Asteroid a : asteroids) {
-            PVector f = sun.attraction(a);
-            a.applyForce(f);
-            a.move(dt * speedUp);
+        if (blockSteps != null) {
+            blockSteps.step(movingBodies, gravity != null ? treeForce : sunForce, dt * speedUp);
+            return;
         }
+
+        //forcas: so sol -> corpo, ou gravidade mutua (Barnes-Hut)
+        integrator.step(movingBodies, gravity != null ? nBodyForces : sunForces, dt * speedUp);
     }
-    
+
+    //posicoes (e velocidades) de todos os corpos no tempo de simulacao atual
+    private void updateEphemeris() {
+        double t = simTime - ephemerisEpoch;
+        for (int i = 0; i < orbits.length; i++) {
+            if (orbits[i] == null) { continue;}
+            Mover m = movingBodies.get(i);
+            orbits[i].stateAt(t, m.pos, m.vel);
+            m.afterMove();
+        }
+    }
+
+    //liga/desliga o modo efemeride; as orbitas sao calculadas a partir do estado atual
+    public void setEphemerisMode(boolean enabled) {
+        if (blockSteps != null) { blockSteps.invalidate();}  //posicoes passam a vir (ou deixam de vir) das orbitas
+
+        if (!enabled) {
+            orbits = null;  //a integracao continua a partir das ultimas posicoes/velocidades
+            return;
+        }
+
+        double mu = G * sunMass;
+        orbits = new KeplerOrbit[movingBodies.size()];
+        unboundBodies.clear();
+        for (int i = 0; i < orbits.length; i++) {
+            Mover m = movingBodies.get(i);
+            orbits[i] = KeplerOrbit.fromState(m.getPos(), m.getVel(), sun.getPos(), mu);
+            if (orbits[i] == null) { unboundBodies.add(m);}
+        }
+        ephemerisEpoch = simTime;
+    }
+
+    public boolean isEphemerisMode() {
+        return orbits != null;
+    }
+
+    public double getSimulationTime() {
+        return simTime;
+    }
+
+    //salto direto para um instante (so faz sentido no modo efemeride)
+    public void setSimulationTime(double t) {
+        simTime = t;
+        if (orbits != null) { updateEphemeris();}
+    }
+
+    private void applySunForcesUnbound() {
+        for (int i = 0; i < unboundBodies.size(); i++) {
+            Mover m = unboundBodies.get(i);
+            m.applyForce(sun.attraction(m));
+        }
+    }
+
+    //atracao sol -> planeta/asteroide
+    private void applySunForces() {
+        for (int i = 0; i < movingBodies.size(); i++) {
+            Mover m = movingBodies.get(i);
+            m.applyForce(sun.attraction(m));
+        }
+    }
+
+    //gravidade mutua: todas as forcas calculadas com as mesmas posicoes
+    private void applyNBodyForces() {
+        gravity.build(allBodies);
+
+        for (int i = 0; i < movingBodies.size(); i++) {
+            Mover m = movingBodies.get(i);
+            m.applyForce(gravity.computeForce(m, force));
+        }
+    }
+
+    //ativa passos por blocos: subpasso de cada corpo ~ eta * |v| / |a|, no maximo 2^maxLevel por frame
+    public void setBlockTimestep(float eta, int maxLevel) {
+        blockSteps = new BlockTimestep(eta, maxLevel);
+    }
+
+    public void disableBlockTimestep() {
+        blockSteps = null;
+    }
+
+    public BlockTimestep getBlockTimestep() {
+        return blockSteps;
+    }
+
+    //planetas + asteroides (o sol incluido)
+    public int getBodyCount() {
+        return allBodies.size();
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+    }
+
+    public float getOpeningAngle() {
+        return gravity == null ? 0f : gravity.getTheta();
+    }
+
+    public void setOpeningAngle(float openingAngle) {
+        if (gravity != null) { gravity.setTheta(openingAngle);}
+    }
+
     //desenho em coordenadas do mundo via subplot
     public void display(PApplet p) {
         //estrelas background
@@ -209,8 +384,23 @@ public class SolarSystem {
         //desenhar os planetas
         for (CelestialBody planet : planets) { planet.display(p, plt);}
         
-        //desenhar os asteroides
-        for (Asteroid a : asteroids) { a.display(p, plt);}
+        //desenhar os asteroides: posicoes e raios convertidos para pixeis numa so passagem
+        int n = asteroids.size();
+        if (astX.length < n) {
+            astX = new float[n];
+            astY = new float[n];
+            astR = new float[n];
+        }
+        for (int i = 0; i < n; i++) {
+            Asteroid a = asteroids.get(i);
+            astX[i] = a.getPos().x;
+            astY[i] = a.getPos().y;
+            astR[i] = a.getRadius();
+        }
+        plt.toPixel(astX, astY, 0, n);
+        plt.dimToPixel(astR, 0, n);
+
+        for (int i = 0; i < n; i++) { asteroids.get(i).display(p, astX[i], astY[i], astR[i]);}
     }
 
     private float rand(float min, float max) {
@@ -1,9 +1,32 @@
 package setup;
 import processing.core.PApplet;
 
+/**
+ * Interface da aplicação corrida pelo ProcessingSetup.
+ *
+ * Existem dois modos de ciclo principal:
+ *  - passo variável: draw(p, dt) é chamado uma vez por frame com o dt real
+ *  - passo fixo (tickRate() > 0): update(p, dt) é chamado zero ou mais vezes por frame
+ *    com dt = 1 / tickRate, e display(p, alpha) desenha uma vez, com alpha em [0, 1)
+ *    a indicar quanto do próximo passo já decorreu (para interpolação)
+ */
 public interface IProcessingApp {
     public void setup(PApplet p);
     public void draw(PApplet p, float dt);
+
+    //passo fixo da simulacao (so usado quando tickRate() > 0)
+    default void update(PApplet p, float dt) {}
+    default void display(PApplet p, float alpha) {}
+
+    //passos de simulacao por segundo (0 = passo variavel, usa draw)
+    default float tickRate() { return 0;}
+
+    //maximo de passos por frame; o atraso acima disso e descartado para nao entrar em espiral
+    default int maxCatchUpSteps() { return 5;}
+
+    //chamado quando o sketch termina (libertar threads e recursos)
+    default void dispose() {}
+
     public void mousePressed(PApplet p);
 	public void keyPressed(PApplet p);
 	public void keyReleased(PApplet p);
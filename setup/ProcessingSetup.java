@@ -7,7 +7,8 @@ import processing.core.PApplet;
 public class ProcessingSetup extends PApplet {
 
     public static IProcessingApp app;
-    private int lastUpdate;
+    private long lastUpdate; //System.nanoTime do frame anterior (millis() arredonda a 1 ms)
+    private float accumulator; //tempo real ainda por simular (modo de passo fixo)
 
     @Override
     public void settings() {
@@ -19,15 +20,43 @@ public class ProcessingSetup extends PApplet {
     public void setup() {
     	surface.setTitle("SPACE INVADERS");
         app.setup(this);
-        lastUpdate = millis();
+        lastUpdate = System.nanoTime();
     }
 
     @Override
     public void draw() {
-        int now = millis();
-        float dt = (now - lastUpdate) / 1000f;
+        long now = System.nanoTime();
+        float dt = (now - lastUpdate) / 1e9f;
         lastUpdate = now;
-        app.draw(this, dt);
+
+        float rate = app.tickRate();
+        if (rate <= 0) {
+            app.draw(this, dt); //passo variavel
+            return;
+        }
+
+        //passo fixo: consome o tempo acumulado em passos iguais
+        float step = 1f / rate;
+        int maxSteps = app.maxCatchUpSteps();
+        accumulator += dt;
+
+        int steps = 0;
+        while (accumulator >= step && steps < maxSteps) {
+            app.update(this, step);
+            accumulator -= step;
+            steps++;
+        }
+
+        //frame demasiado lento: descarta o atraso em vez de acumular passos
+        if (accumulator >= step) { accumulator %= step;}
+
+        app.display(this, accumulator / step); //alpha: fracao do proximo passo ja decorrida
+    }
+
+    @Override
+    public void dispose() {
+        app.dispose();
+        super.dispose();
     }
 
     @Override
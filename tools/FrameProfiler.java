@@ -0,0 +1,472 @@
+package tools;
+
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import processing.core.PApplet;
+
+/**
+ * Profiler de fases do frame (tempo gasto em cada parte do update e do desenho).
+ *
+ * Cada fase é medida com begin/end à volta do código respetivo. Uma fase pode ser
+ * executada várias vezes no mesmo frame (vários passos fixos de simulação), pelo que
+ * os tempos são acumulados e só no endFrame passam a uma linha do histórico, em ms.
+ * A fase FRAME guarda o intervalo real entre dois frames consecutivos.
+ *
+ * A partir do histórico são calculados percentis (p50/p95/p99) das últimas
+ * "window" frames, mostrados num overlay com o gráfico do tempo de frame, e o
+ * histórico completo pode ser exportado em CSV (uma linha por frame, uma coluna por fase).
+ *
+ * Opcionalmente (setAllocationTracking) cada fase regista também os bytes alocados
+ * pela thread que a executa (contadores de alocação por thread do ThreadMXBean). A fase
+ * FRAME guarda o total alocado pela thread de desenho entre dois frames. O overlay e o
+ * log periódico mostram a média de bytes/frame por fase nas últimas "window" frames e
+ * assinalam as fases acima do orçamento configurado (setAllocationBudget).
+ *
+ * Com o profiler desligado begin/end/endFrame retornam logo, sem medir nada.
+ * No modo de simulação em thread separada as fases de update são acumuladas pela
+ * SimulationThread e recolhidas no endFrame da thread de desenho.
+ *
+ * O overlay recalcula os percentis (uma ordenação por fase) e os textos da tabela só a
+ * cada STATS_INTERVAL frames; o seu próprio custo (tempo e bytes) é descontado da fase
+ * FRAME do frame seguinte, para não aparecer nas medições.
+ *
+ * Segue o padrão Singleton (como o AssetManager) para poder ser usado em qualquer
+ * sistema sem passar referências.
+ */
+
+public class FrameProfiler {
+
+    //fases medidas (depth: indentacao no overlay, fases dentro de UPDATE/DISPLAY)
+    public enum Phase {
+        FRAME("frame", 0),
+        UPDATE("update", 0),
+        PROJECTILES("projectiles", 1),
+        ENEMIES("enemies", 1),
+        COLLISIONS("collisions", 1),
+        DISPLAY("display", 0),
+        LEVEL_UPDATE("level bg", 1),  //background atualizado no display, ao ritmo do desenho
+        DRAW_LEVEL("draw level", 1),
+        DRAW_ENEMIES("draw enemies", 1),
+        DRAW_PLAYER("draw player", 1),
+        DRAW_PROJECTILES("draw projectiles", 1),
+        DRAW_HUD("draw hud", 1);
+
+        private final String label;
+        private final int depth;
+
+        Phase(String label, int depth) {
+            this.label = label;
+            this.depth = depth;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int HISTORY = 3600;  //frames guardados para o CSV (~1 minuto a 60 fps)
+    private static final float BUDGET_60 = 1000f / 60f;  //linhas de referencia do grafico (ms)
+    private static final float BUDGET_30 = 1000f / 30f;
+    private static final int STATS_INTERVAL = 15;  //frames entre recalculos da tabela do overlay
+    private static final float[] RANKS = {0.50f, 0.95f, 0.99f};  //percentis mostrados
+
+    //instancia unica (singleton)
+    private static final FrameProfiler INSTANCE = new FrameProfiler();
+    public static FrameProfiler get() { return INSTANCE; }
+
+    private volatile boolean enabled = false;
+    private boolean overlayVisible = false;
+    private int window = 240;  //frames usadas nos percentis e no grafico
+
+    //tempos acumulados no frame atual (ns) e inicio da medicao de cada fase
+    private final AtomicLongArray accum = new AtomicLongArray(PHASES.length);
+    private final long[] start = new long[PHASES.length];
+    private long lastFrameNanos;
+
+    //historico circular em ms: history[frame][fase]
+    private final float[][] history = new float[HISTORY][PHASES.length];
+    private int head;  //proxima linha a escrever
+    private int count;  //linhas validas
+    private long frameNumber;  //frames registadas desde o arranque (coluna do CSV)
+    private final long[] frameIds = new long[HISTORY];
+
+    private float[] scratch = new float[window];  //copia ordenada para os percentis
+
+    //alocacao por fase (bytes), via contadores por thread da JVM (null se nao suportado)
+    private final com.sun.management.ThreadMXBean allocBean = allocationBean();
+    private volatile boolean allocationTracking = false;
+    private final long[] startBytes = new long[PHASES.length];
+    private final AtomicLongArray allocAccum = new AtomicLongArray(PHASES.length);
+    private final long[][] allocHistory = new long[HISTORY][PHASES.length];
+    private final long[] allocBudget = new long[PHASES.length];  //bytes/frame (0 = sem orcamento)
+    private long lastFrameBytes = -1;
+    private int logInterval = 300;  //frames entre linhas de log da alocacao (0 = sem log)
+    private int framesSinceLog;
+
+    //tabela do overlay (textos em cache) e custo do proprio overlay, descontado do frame seguinte
+    private final String[][] cells = new String[PHASES.length][RANKS.length + 1];
+    private final boolean[] overBudget = new boolean[PHASES.length];
+    private String header;
+    private int framesSinceStats = STATS_INTERVAL;
+    private long overlayNanos;
+    private long overlayBytes;
+
+    private FrameProfiler() { }
+
+    public void begin(Phase phase) {
+        if (!enabled) { return;}
+        int i = phase.ordinal();
+        startBytes[i] = allocationTracking ? allocatedBytes() : -1;
+        start[i] = System.nanoTime();
+    }
+
+    public void end(Phase phase) {
+        int i = phase.ordinal();
+        long s = start[i];
+        if (!enabled || s == 0) { return;}  //begin sem profiler ligado
+        accum.addAndGet(i, System.nanoTime() - s);
+        start[i] = 0;
+
+        long b = startBytes[i];
+        if (b >= 0 && allocationTracking) { allocAccum.addAndGet(i, allocatedBytes() - b);}
+    }
+
+    //fecha o frame atual: passa os tempos acumulados para o historico
+    public void endFrame() {
+        if (!enabled) {
+            lastFrameNanos = 0;
+            lastFrameBytes = -1;
+            return;
+        }
+
+        long now = System.nanoTime();
+        boolean first = (lastFrameNanos == 0);
+        float frameMs = (now - lastFrameNanos - overlayNanos) / 1e6f;  //sem o overlay do frame anterior
+        lastFrameNanos = now;
+
+        //bytes alocados pela thread de desenho desde o frame anterior (tambem sem o overlay)
+        long bytes = allocationTracking ? allocatedBytes() : -1;
+        long frameBytes = (bytes >= 0 && lastFrameBytes >= 0) ? Math.max(0, bytes - lastFrameBytes - overlayBytes) : 0;
+        lastFrameBytes = bytes;
+        overlayNanos = 0;
+        overlayBytes = 0;
+
+        float[] row = history[head];
+        long[] allocRow = allocHistory[head];
+        for (int i = 0; i < PHASES.length; i++) {
+            row[i] = accum.getAndSet(i, 0) / 1e6f;
+            allocRow[i] = allocAccum.getAndSet(i, 0);
+        }
+        if (first) { return;}  //sem frame anterior: intervalo desconhecido
+
+        row[Phase.FRAME.ordinal()] = frameMs;
+        allocRow[Phase.FRAME.ordinal()] = frameBytes;
+        frameIds[head] = frameNumber++;
+        head = (head + 1) % HISTORY;
+        if (count < HISTORY) { count++;}
+
+        if (allocationTracking && logInterval > 0 && ++framesSinceLog >= logInterval) {
+            framesSinceLog = 0;
+            logAllocations();
+        }
+    }
+
+    //media de bytes alocados por frame pela fase nas ultimas "window" frames
+    public long allocatedPerFrame(Phase phase) {
+        int n = Math.min(count, window);
+        if (n == 0) { return 0;}
+
+        int i = phase.ordinal();
+        long sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += allocHistory[index(k, n)][i];
+        }
+        return sum / n;
+    }
+
+    //fase com media acima do orcamento de alocacao
+    public boolean isOverBudget(Phase phase) {
+        long budget = allocBudget[phase.ordinal()];
+        return budget > 0 && allocatedPerFrame(phase) > budget;
+    }
+
+    //uma linha com bytes/frame de cada fase que aloca, assinalando as que passam o orcamento
+    private void logAllocations() {
+        StringBuilder sb = new StringBuilder("Allocation (bytes/frame, last ")
+                .append(Math.min(count, window)).append(" frames):");
+        for (Phase ph : PHASES) {
+            long bytes = allocatedPerFrame(ph);
+            if (bytes == 0) { continue;}
+            sb.append(' ').append(ph.name().toLowerCase()).append('=').append(bytes);
+            if (isOverBudget(ph)) { sb.append(" (over budget ").append(allocBudget[ph.ordinal()]).append(")");}
+        }
+        System.out.println(sb);
+    }
+
+    //bytes alocados ate agora pela thread atual
+    private long allocatedBytes() {
+        return allocBean.getCurrentThreadAllocatedBytes();
+    }
+
+    //ThreadMXBean com contadores de alocacao por thread (extensao da HotSpot), ou null
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) { return null;}
+
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) { return null;}
+        return sunBean;
+    }
+
+    //percentil q (0..1) da fase nas ultimas "window" frames, em ms
+    public float percentile(Phase phase, float q) {
+        int n = sortWindow(phase.ordinal());
+        return (n == 0) ? 0f : rank(q, n);
+    }
+
+    //copia a fase i das ultimas "window" frames para scratch e ordena; devolve quantas ha
+    private int sortWindow(int i) {
+        int n = Math.min(count, window);
+        for (int k = 0; k < n; k++) {
+            scratch[k] = history[index(k, n)][i];
+        }
+        Arrays.sort(scratch, 0, n);
+        return n;
+    }
+
+    //percentil q da janela ja ordenada em scratch
+    private float rank(float q, int n) {
+        int r = (int) Math.ceil(q * n) - 1;
+        return scratch[PApplet.constrain(r, 0, n - 1)];
+    }
+
+    //linha do historico da k-esima das ultimas n frames (0 = mais antiga)
+    private int index(int k, int n) {
+        return (head - n + k + HISTORY) % HISTORY;
+    }
+
+    //overlay: grafico do tempo de frame e tabela de percentis por fase
+    public void drawOverlay(PApplet p) {
+        if (!overlayVisible) { return;}
+
+        long t0 = System.nanoTime();
+        long b0 = allocationTracking ? allocatedBytes() : -1;
+
+        //tabela recalculada so de tempos a tempos (ordenacoes e textos)
+        if (++framesSinceStats >= STATS_INTERVAL) {
+            framesSinceStats = 0;
+            refreshStats();
+        }
+
+        float pad = 10;
+        float graphW = 240;
+        float graphH = 70;
+        float rowH = 13;
+        float tableH = rowH * (PHASES.length + 1);
+        float tableW = allocationTracking ? 300 : 200;
+        float panelW = Math.max(graphW, tableW) + 2 * pad;
+        float panelH = graphH + tableH + 3 * pad;
+        float x0 = pad;
+        float y0 = p.height - panelH - pad;
+
+        p.pushStyle();
+
+        //painel
+        p.noStroke();
+        p.fill(0, 190);
+        p.rect(x0, y0, panelW, panelH);
+
+        //grafico: uma barra por frame, escala fixa ate 2x o orcamento de 30 fps
+        float gx = x0 + pad;
+        float gy = y0 + pad;
+        float scale = graphH / (2 * BUDGET_30);
+        int n = Math.min(count, window);
+        float barW = graphW / window;
+        int frame = Phase.FRAME.ordinal();
+
+        p.strokeWeight(Math.max(1f, barW));
+        for (int k = 0; k < n; k++) {
+            float ms = history[index(k, n)][frame];
+            if (ms <= BUDGET_60 * 1.05f) {
+                p.stroke(90, 220, 120);
+            } else if (ms <= BUDGET_30) {
+                p.stroke(240, 200, 60);
+            } else {
+                p.stroke(240, 80, 70);
+            }
+            float h = Math.min(ms * scale, graphH);
+            float bx = gx + (window - n + k) * barW;
+            p.line(bx, gy + graphH, bx, gy + graphH - h);
+        }
+
+        //linhas de referencia (60 e 30 fps)
+        p.strokeWeight(1);
+        p.stroke(255, 90);
+        p.line(gx, gy + graphH - BUDGET_60 * scale, gx + graphW, gy + graphH - BUDGET_60 * scale);
+        p.line(gx, gy + graphH - BUDGET_30 * scale, gx + graphW, gy + graphH - BUDGET_30 * scale);
+
+        //tabela de percentis (textos em cache)
+        p.noStroke();
+        p.textSize(11);
+        p.textAlign(PApplet.LEFT, PApplet.TOP);
+        float ty = gy + graphH + pad;
+        float c1 = gx + 120, c2 = c1 + 40, c3 = c2 + 40, c4 = c3 + 45;
+
+        p.fill(200, 255, 200);
+        p.text(header, gx, ty);
+        p.text("p50", c1, ty);
+        p.text("p95", c2, ty);
+        p.text("p99", c3, ty);
+        if (allocationTracking) { p.text("KB/frame", c4, ty);}
+
+        for (int i = 0; i < PHASES.length; i++) {
+            Phase ph = PHASES[i];
+            String[] row = cells[i];
+            float y = ty + rowH * (i + 1);
+            p.fill(230);
+            p.text(ph.label, gx + ph.depth * 10, y);
+            p.text(row[0], c1, y);
+            p.text(row[1], c2, y);
+            p.text(row[2], c3, y);
+
+            //alocacao: a vermelho acima do orcamento
+            if (allocationTracking) {
+                if (overBudget[i]) { p.fill(240, 80, 70);}
+                p.text(row[3], c4, y);
+            }
+        }
+
+        p.popStyle();
+
+        //custo do overlay, descontado da fase FRAME no proximo endFrame
+        overlayNanos += System.nanoTime() - t0;
+        if (b0 >= 0 && allocationTracking) { overlayBytes += allocatedBytes() - b0;}
+    }
+
+    //percentis (uma ordenacao por fase), alocacao media e textos da tabela do overlay
+    private void refreshStats() {
+        header = "ms (" + Math.min(count, window) + " frames)";
+
+        for (int i = 0; i < PHASES.length; i++) {
+            int n = sortWindow(i);
+            for (int q = 0; q < RANKS.length; q++) {
+                float ms = (n == 0) ? 0f : rank(RANKS[q], n);
+                cells[i][q] = PApplet.nf(ms, 1, 2);
+            }
+
+            long bytes = allocatedPerFrame(PHASES[i]);
+            overBudget[i] = allocBudget[i] > 0 && bytes > allocBudget[i];
+            cells[i][RANKS.length] = PApplet.nf(bytes / 1024f, 1, 1);
+        }
+    }
+
+    //escreve o historico em CSV (mais antigo primeiro); devolve o numero de frames escritas
+    public int exportCsv(PrintWriter out) {
+        StringBuilder sb = new StringBuilder("index");
+        for (Phase ph : PHASES) {
+            sb.append(',').append(ph.name().toLowerCase());
+        }
+        for (Phase ph : PHASES) {
+            sb.append(',').append(ph.name().toLowerCase()).append("_bytes");
+        }
+        out.println(sb);
+
+        for (int k = 0; k < count; k++) {
+            int row = index(k, count);
+            sb.setLength(0);
+            sb.append(frameIds[row]);
+            for (int i = 0; i < PHASES.length; i++) {
+                sb.append(',').append(history[row][i]);
+            }
+            for (int i = 0; i < PHASES.length; i++) {
+                sb.append(',').append(allocHistory[row][i]);
+            }
+            out.println(sb);
+        }
+        out.flush();
+        return count;
+    }
+
+    //limpa o historico (por exemplo, no inicio de uma sessao a comparar)
+    public void reset() {
+        head = 0;
+        count = 0;
+        lastFrameNanos = 0;
+        lastFrameBytes = -1;
+        framesSinceLog = 0;
+        framesSinceStats = STATS_INTERVAL;
+        overlayNanos = 0;
+        overlayBytes = 0;
+        for (int i = 0; i < PHASES.length; i++) {
+            accum.set(i, 0);
+            allocAccum.set(i, 0);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    public void setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+        framesSinceStats = STATS_INTERVAL;  //tabela atualizada logo no primeiro frame
+    }
+
+    public boolean isAllocationTracking() {
+        return allocationTracking;
+    }
+
+    //liga a contagem de alocacao por fase; devolve false se a JVM nao tiver contadores por thread
+    public boolean setAllocationTracking(boolean tracking) {
+        if (tracking && allocBean == null) { return false;}
+        if (tracking && !allocBean.isThreadAllocatedMemoryEnabled()) { allocBean.setThreadAllocatedMemoryEnabled(true);}
+
+        this.allocationTracking = tracking;
+        lastFrameBytes = -1;
+        return tracking;
+    }
+
+    public long getAllocationBudget(Phase phase) {
+        return allocBudget[phase.ordinal()];
+    }
+
+    public void setAllocationBudget(Phase phase, long bytesPerFrame) {
+        allocBudget[phase.ordinal()] = Math.max(0, bytesPerFrame);
+    }
+
+    //mesmo orcamento para todas as fases exceto FRAME (total da thread de desenho)
+    public void setAllocationBudget(long bytesPerFrame) {
+        for (Phase ph : PHASES) {
+            if (ph != Phase.FRAME) { setAllocationBudget(ph, bytesPerFrame);}
+        }
+    }
+
+    public int getLogInterval() {
+        return logInterval;
+    }
+
+    public void setLogInterval(int logInterval) {
+        this.logInterval = Math.max(0, logInterval);
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = PApplet.constrain(window, 1, HISTORY);
+        scratch = new float[this.window];
+    }
+}
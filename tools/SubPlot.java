@@ -1,5 +1,7 @@
 package tools;
 
+import processing.core.PMatrix2D;
+
 /**
  * Classe utilitária para conversão entre coordenadas de "mundo" e coordenadas em píxeis.
  *
@@ -14,6 +16,13 @@ package tools;
  *
  * A conversão em y inverte o eixo vertical (o ecrã cresce para baixo),
  * pelo que a escala my é negativa.
+ *
+ * Os métodos que devolvem arrays novos são práticos para uso pontual. Para desenhar
+ * muitos pontos por frame existem variantes sem alocação:
+ *  - versões com array de saída fornecido por quem chama (getPixelCoord(x, y, out), ...)
+ *  - versões em lote que convertem arrays inteiros (toPixel, toWorld)
+ *  - getMatrix(), a mesma transformação mundo -> pixel como PMatrix2D, para aplicar
+ *    uma vez com applyMatrix e desenhar diretamente em coordenadas do mundo
  */
 
 public class SubPlot {
@@ -65,11 +74,66 @@ public class SubPlot {
     public double[] getPixelCoord(float[] xy) {
         return getWorldCoord(xy[0], xy[1]);
     }
+
+    //mundo -> pixel para um array de saida fornecido (sem alocacao)
+    public float[] getPixelCoord(double x, double y, float[] out) {
+        out[0] = (float) (bx + mx * (x - window[0]));
+        out[1] = (float) (by + my * (y - window[2]));
+        return out;
+    }
+
+    //pixel -> mundo para um array de saida fornecido (sem alocacao)
+    public double[] getWorldCoord(float xx, float yy, double[] out) {
+        out[0] = window[0] + (xx - bx) / mx;
+        out[1] = window[2] + (yy - by) / my;
+        return out;
+    }
+
+    //lote: converte count pontos mundo -> pixel no proprio array (xs[from..], ys[from..])
+    public void toPixel(float[] xs, float[] ys, int from, int count) {
+        double ox = bx - mx * window[0];
+        double oy = by - my * window[2];
+        for (int i = from; i < from + count; i++) {
+            xs[i] = (float) (ox + mx * xs[i]);
+            ys[i] = (float) (oy + my * ys[i]);
+        }
+    }
+
+    //lote: pontos do mundo intercalados (x0, y0, x1, y1, ...) -> pixeis intercalados em out
+    public void toPixel(double[] xy, float[] out, int count) {
+        double ox = bx - mx * window[0];
+        double oy = by - my * window[2];
+        for (int i = 0; i < 2 * count; i += 2) {
+            out[i] = (float) (ox + mx * xy[i]);
+            out[i + 1] = (float) (oy + my * xy[i + 1]);
+        }
+    }
+
+    //lote: pixeis intercalados -> pontos do mundo intercalados em out
+    public void toWorld(float[] xy, double[] out, int count) {
+        for (int i = 0; i < 2 * count; i += 2) {
+            out[i] = window[0] + (xy[i] - bx) / mx;
+            out[i + 1] = window[2] + (xy[i + 1] - by) / my;
+        }
+    }
+
+    //transformacao mundo -> pixel como matriz (aplicar uma vez com applyMatrix)
+    //nota: com a matriz aplicada, tamanhos (raios, strokeWeight) tambem ficam em unidades do mundo
+    public PMatrix2D getMatrix() {
+        return getMatrix(new PMatrix2D());
+    }
+
+    public PMatrix2D getMatrix(PMatrix2D out) {
+        out.set((float) mx, 0, (float) (bx - mx * window[0]),
+                0, (float) my, (float) (by - my * window[2]));
+        return out;
+    }
     
     //verifica se um ponto em pixel esta dentro da janela do mundo
     public boolean isInside(float xx, float yy) {
-        double[] c = getWorldCoord(xx, yy);
-        return (c[0] >= window[0] && c[0] <= window[1] && c[1] >= window[2] && c[1] <= window[3]);
+        double cx = window[0] + (xx - bx) / mx;
+        double cy = window[2] + (yy - by) / my;
+        return (cx >= window[0] && cx <= window[1] && cy >= window[2] && cy <= window[3]);
     }
 
     public boolean isInside(float[] xy) {
@@ -112,6 +176,20 @@ public class SubPlot {
         return getDimInPixel(dxdy[0], dxdy[1]);
     }
 
+    //dimensoes mundo -> pixel para um array de saida fornecido (sem alocacao)
+    public float[] getDimInPixel(double dx, double dy, float[] out) {
+        out[0] = (float) (dx * mx);
+        out[1] = (float) (dy * my);
+        return out;
+    }
+
+    //lote: dimensoes do mundo -> pixel no proprio array
+    public void dimToPixel(float[] ds, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            ds[i] = (float) (ds[i] * mx);
+        }
+    }
+
     public float[] getViewport() {
         return viewport;
     }
@@ -0,0 +1,59 @@
+package tools;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Troca de dados entre uma thread produtora e uma consumidora sem bloqueios (triple buffering).
+ *
+ * Existem três instâncias do mesmo tipo:
+ *  - back: só usada pelo produtor, que a preenche
+ *  - middle: a última publicada, partilhada através de uma referência atómica
+ *  - front: só usada pelo consumidor, que a lê
+ *
+ * publish() troca back com middle; acquire() troca front com middle se houver uma
+ * publicação nova. Como cada lado só escreve/lê a instância que detém, nenhum dos dois
+ * espera pelo outro e o consumidor nunca vê uma instância a meio de ser escrita.
+ *
+ * Usada para a thread de simulação publicar snapshots de render para a thread de desenho.
+ */
+
+public class TripleBuffer<T> {
+
+    private static final class Slot<T> {
+        final T value;
+        final boolean fresh;  //publicado e ainda nao lido
+
+        Slot(T value, boolean fresh) {
+            this.value = value;
+            this.fresh = fresh;
+        }
+    }
+
+    private final AtomicReference<Slot<T>> middle;
+    private T back;
+    private T front;
+
+    public TripleBuffer(T a, T b, T c) {
+        this.back = a;
+        this.middle = new AtomicReference<>(new Slot<>(b, false));
+        this.front = c;
+    }
+
+    //produtor: instancia a preencher antes de publish()
+    public T back() {
+        return back;
+    }
+
+    //produtor: publica a instancia preenchida e recebe outra livre
+    public void publish() {
+        back = middle.getAndSet(new Slot<>(back, true)).value;
+    }
+
+    //consumidor: devolve a publicacao mais recente (ou a mesma de antes, se nao houver nova)
+    public T acquire() {
+        if (middle.get().fresh) {
+            front = middle.getAndSet(new Slot<>(front, false)).value;
+        }
+        return front;
+    }
+}